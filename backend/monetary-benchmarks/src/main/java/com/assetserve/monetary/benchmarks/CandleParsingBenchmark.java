@@ -0,0 +1,34 @@
+package com.assetserve.monetary.benchmarks;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.service.CandleParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// getPriceData response parsing: two sessions of ONE_MINUTE candles (750 rows)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CandleParsingBenchmark {
+
+    private CandleParser candleParser;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        candleParser = new CandleParser(new ObjectMapper());
+        body = Payloads.bytes("candles-one-minute.json");
+    }
+
+    @Benchmark
+    public ArrayCandleSeries parseCandles() throws IOException {
+        return candleParser.parse(new ByteArrayInputStream(body));
+    }
+}
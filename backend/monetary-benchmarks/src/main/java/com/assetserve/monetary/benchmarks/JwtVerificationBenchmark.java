@@ -0,0 +1,49 @@
+package com.assetserve.monetary.benchmarks;
+
+import com.assetserve.monetary.dto.JwtPrincipal;
+import com.assetserve.monetary.model.User;
+import com.assetserve.monetary.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// JwtService.verify: a token already in the verified cache vs a full signature check
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private JwtService cachingService;
+    // A one-entry cache that alternating tokens keep evicting, so every call parses and verifies
+    private JwtService verifyingService;
+    private String token;
+    private String otherToken;
+    private boolean flip;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString("assetserve-benchmark-signing-key-32b".getBytes());
+        cachingService = new JwtService(secret, 10_000, null);
+        verifyingService = new JwtService(secret, 1, null);
+
+        User user = User.builder().id(42L).email("bench@assetserve.dev").firstName("Bench").password("x").build();
+        User other = User.builder().id(43L).email("other@assetserve.dev").firstName("Other").password("x").build();
+        token = cachingService.generateToken(user);
+        otherToken = cachingService.generateToken(other);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyCached() {
+        return cachingService.verify(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyUncached() {
+        flip = !flip;
+        return verifyingService.verify(flip ? token : otherToken);
+    }
+}
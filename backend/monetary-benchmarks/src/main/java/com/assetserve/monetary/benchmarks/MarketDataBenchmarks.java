@@ -0,0 +1,48 @@
+package com.assetserve.monetary.benchmarks;
+
+import com.assetserve.monetary.dto.HoldingResponse;
+import com.assetserve.monetary.dto.IndexQuote;
+import com.assetserve.monetary.service.CandleParser;
+import com.assetserve.monetary.service.LivePriceBook;
+import com.assetserve.monetary.service.MarketDataService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Response mapping behind getHolding and getIndicesFullData, run on recorded bodies with no HTTP involved
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarketDataBenchmarks {
+
+    private MarketDataService marketDataService;
+    private String holdingsBody;
+    private String indexQuoteBody;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        // Parsing never touches the REST client or the broker session
+        marketDataService = new MarketDataService(null, objectMapper, new LivePriceBook(5000, 1000),
+                new CandleParser(objectMapper), null, 1000, 5000);
+        holdingsBody = Payloads.text("holdings.json");
+        indexQuoteBody = Payloads.text("index-quote-full.json");
+    }
+
+    @Benchmark
+    public List<HoldingResponse> parseHoldings() throws IOException {
+        return marketDataService.parseHoldings(holdingsBody);
+    }
+
+    @Benchmark
+    public Map<String, IndexQuote> parseIndexQuotes() throws IOException {
+        return marketDataService.parseIndexQuotes(indexQuoteBody);
+    }
+}
@@ -0,0 +1,28 @@
+package com.assetserve.monetary.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Recorded AngelOne response bodies bundled under src/main/resources/payloads
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    static byte[] bytes(String name) {
+        try (InputStream in = Payloads.class.getClassLoader().getResourceAsStream("payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing payload " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String text(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+}
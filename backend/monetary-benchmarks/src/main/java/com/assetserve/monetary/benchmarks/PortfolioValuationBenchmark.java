@@ -0,0 +1,60 @@
+package com.assetserve.monetary.benchmarks;
+
+import com.assetserve.monetary.dto.PortfolioAssetResponse;
+import com.assetserve.monetary.model.Asset;
+import com.assetserve.monetary.service.PortfolioService;
+import com.assetserve.monetary.service.PriceCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// PortfolioService valuation math: value, cost basis and P&L per asset against an LTP map
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioValuationBenchmark {
+
+    @Param({"10", "200"})
+    public int assetCount;
+
+    private PortfolioService portfolioService;
+    private List<Asset> assets;
+    private Map<String, Double> ltps;
+
+    @Setup
+    public void setUp() {
+        // valueAssets is pure; none of the collaborators are used
+        portfolioService = new PortfolioService(null, null, null, null, null, null);
+
+        SplittableRandom random = new SplittableRandom(42);
+        assets = new ArrayList<>(assetCount);
+        ltps = new HashMap<>();
+        for (int i = 0; i < assetCount; i++) {
+            String token = String.valueOf(1000 + i);
+            assets.add(Asset.builder()
+                    .id((long) i)
+                    .exchange("NSE")
+                    .symbolToken(token)
+                    .symbol("SYM" + i + "-EQ")
+                    .assetType("STOCK")
+                    .quantity(BigDecimal.valueOf(random.nextInt(1, 500)))
+                    .purchasePrice(BigDecimal.valueOf(random.nextInt(10_000, 400_000), 2))
+                    .build());
+            ltps.put(PriceCache.key("NSE", token), random.nextInt(10_000, 400_000) / 100.0);
+        }
+    }
+
+    @Benchmark
+    public List<PortfolioAssetResponse> valueAssets() {
+        return portfolioService.valueAssets(assets, ltps);
+    }
+}
@@ -0,0 +1,34 @@
+package com.assetserve.monetary.benchmarks;
+
+import com.assetserve.monetary.filter.Scrip;
+import com.assetserve.monetary.service.ScripMasterService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ScripMasterService.searchScrips over the bundled NSE scrip list: exact, prefix, substring and typo queries
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScripSearchBenchmark {
+
+    @Param({"RELIANCE", "TATA", "POWER", "RELAINCE"})
+    public String query;
+
+    private ScripMasterService scripMasterService;
+
+    @Setup
+    public void setUp() {
+        scripMasterService = new ScripMasterService();
+        scripMasterService.bootstrap();
+    }
+
+    @Benchmark
+    public List<Scrip> searchScrips() {
+        return scripMasterService.searchScrips(query);
+    }
+}
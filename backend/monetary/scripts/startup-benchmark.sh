@@ -0,0 +1,57 @@
+#!/usr/bin/env sh
+# Time-to-ready for each startup mode: plain jar, jar + AppCDS, AOT + AppCDS.
+# Build first with: mvn -Paot-cds -DskipTests -Dspring-boot.repackage.includeSystemScope=true package
+# Needs the same environment as a normal run (SPRING_DATASOURCE_URL, SPRING_DATASOURCE_USERNAME,
+# SPRING_DATASOURCE_PASSWORD, JWT_SECRET_KEY, ANGELONE_*).
+# "Ready" means /readyz reports UP, i.e. the bootstrap tasks have finished too.
+set -eu
+
+cd "$(dirname "$0")/.."
+PORT=${PORT:-8089}
+RUNS=${RUNS:-3}
+JAR=target/monetary-0.0.1-SNAPSHOT.jar
+CDS_DIR=target/cds
+ARCHIVE=$CDS_DIR/application.jsa
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the app with the given JVM flags and jar, prints milliseconds until readiness is UP
+time_to_ready() {
+    jar=$1
+    shift
+    start=$(now_ms)
+    java "$@" -Dserver.port="$PORT" -jar "$jar" > target/startup-benchmark.log 2>&1 &
+    pid=$!
+    until curl -fs "http://localhost:$PORT/readyz" 2>/dev/null | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "application exited, see target/startup-benchmark.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    echo $(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+report() {
+    mode=$1
+    shift
+    total=0
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        total=$(( total + $(time_to_ready "$@") ))
+        i=$(( i + 1 ))
+    done
+    printf '%-10s %6d ms (mean of %d)\n' "$mode" $(( total / RUNS )) "$RUNS"
+}
+
+report "jar" "$JAR"
+if [ -f "$ARCHIVE" ]; then
+    report "cds" "$CDS_DIR/monetary-0.0.1-SNAPSHOT.jar" -XX:SharedArchiveFile="$ARCHIVE"
+    report "aot+cds" "$CDS_DIR/monetary-0.0.1-SNAPSHOT.jar" -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true
+else
+    echo "no $ARCHIVE; build with -Paot-cds (without -Dcds.skipTraining) to benchmark cds modes" >&2
+fi
@@ -1,13 +1,180 @@
 package com.assetserve.monetary.config;
 
+import com.assetserve.monetary.dto.AngelOneSession;
+import com.assetserve.monetary.service.AngelOneEndpoint;
+import com.assetserve.monetary.service.AngelOneSessionManager;
+import com.assetserve.monetary.service.UpstreamRateGovernor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
 @Configuration
 public class AppConfig {
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(Environment environment,
+                                     UpstreamRateGovernor upstreamRateGovernor,
+                                     ObjectProvider<AngelOneSessionManager> sessionManager,
+                                     MeterRegistry meterRegistry) {
+        // JDK clients keep their own keep-alive pool and negotiate HTTP/2 via ALPN where the server
+        // supports it. The connect timeout belongs to the client, so endpoints with the same one
+        // share a client (and its pool); the total timeout bounds each exchange, body included.
+        Map<Long, HttpClient> clients = new HashMap<>();
+        Map<AngelOneEndpoint, ClientHttpRequestFactory> factories = new EnumMap<>(AngelOneEndpoint.class);
+        for (AngelOneEndpoint endpoint : AngelOneEndpoint.values()) {
+            String prefix = "angelone.http." + endpoint.getPropertyKey() + ".";
+            long connectTimeout = environment.getProperty(
+                    prefix + "connect-timeout-ms", Long.class, endpoint.getConnectTimeoutMillis());
+            HttpClient client = clients.computeIfAbsent(connectTimeout, millis -> HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .connectTimeout(Duration.ofMillis(millis))
+                    .build());
+            JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(client);
+            factory.setReadTimeout(Duration.ofMillis(environment.getProperty(
+                    prefix + "total-timeout-ms", Long.class, endpoint.getTotalTimeoutMillis())));
+            factories.put(endpoint, factory);
+        }
+
+        Map<AngelOneEndpoint, AtomicInteger> active = new EnumMap<>(AngelOneEndpoint.class);
+        for (AngelOneEndpoint endpoint : AngelOneEndpoint.values()) {
+            active.put(endpoint, meterRegistry.gauge("angelone.requests.active",
+                    Tags.of("endpoint", endpoint.getPropertyKey()), new AtomicInteger()));
+        }
+
+        RestTemplate restTemplate = new RestTemplate((ClientHttpRequestFactory) (uri, httpMethod) ->
+                factories.get(AngelOneEndpoint.fromPath(uri.getPath())).createRequest(uri, httpMethod));
+
+        // Outermost, so the re-login retry below is decoded too
+        restTemplate.getInterceptors().add(AppConfig::gzipExecute);
+
+        // Every call spends from its endpoint's rate budget before it goes out. A secure call
+        // rejected with 401 waits for the (shared) re-login and is retried once, but only with a
+        // different token; if the re-login failed the original 401 goes back to the caller.
+        restTemplate.getInterceptors().add((request, body, execution) -> {
+            AngelOneEndpoint endpoint = AngelOneEndpoint.fromPath(request.getURI().getPath());
+            acquirePermit(upstreamRateGovernor, endpoint);
+            ClientHttpResponse response = timedExecute(meterRegistry, active.get(endpoint), endpoint, request, body, execution);
+
+            String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (response.getStatusCode().value() != 401 || authorization == null
+                    || !request.getURI().getPath().contains("/rest/secure/")) {
+                return response;
+            }
+
+            String rejectedJwt = authorization.substring("Bearer ".length());
+            AngelOneSession renewed = sessionManager.getObject().onUnauthorized(rejectedJwt);
+            if (renewed == null || renewed.getJwtToken().equals(rejectedJwt)) {
+                return response;
+            }
+            response.close();
+            request.getHeaders().setBearerAuth(renewed.getJwtToken());
+            acquirePermit(upstreamRateGovernor, endpoint);
+            return timedExecute(meterRegistry, active.get(endpoint), endpoint, request, body, execution);
+        });
+        return restTemplate;
+    }
+
+    // Broker latency only (the rate-permit wait is published as angelone.rate.wait), tagged by endpoint and outcome
+    private static ClientHttpResponse timedExecute(MeterRegistry registry, AtomicInteger active, AngelOneEndpoint endpoint,
+                                                   HttpRequest request, byte[] body,
+                                                   ClientHttpRequestExecution execution) throws IOException {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "IO_ERROR";
+        active.incrementAndGet();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            outcome = Outcome.forStatus(response.getStatusCode().value()).name();
+            return response;
+        } finally {
+            active.decrementAndGet();
+            sample.stop(Timer.builder("angelone.requests")
+                    .description("AngelOne REST calls")
+                    .tag("endpoint", endpoint.getPropertyKey())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    // The JDK client leaves compression to the caller: ask for gzip and inflate it on the way back
+    private static ClientHttpResponse gzipExecute(HttpRequest request, byte[] body,
+                                                  ClientHttpRequestExecution execution) throws IOException {
+        if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        ClientHttpResponse response = execution.execute(request, body);
+        if (!"gzip".equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            return response;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        return new ClientHttpResponse() {
+            private InputStream inflated;
+
+            @Override
+            public HttpStatusCode getStatusCode() throws IOException {
+                return response.getStatusCode();
+            }
+
+            @Override
+            public String getStatusText() throws IOException {
+                return response.getStatusText();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public InputStream getBody() throws IOException {
+                if (inflated == null) {
+                    inflated = new GZIPInputStream(response.getBody());
+                }
+                return inflated;
+            }
+
+            @Override
+            public void close() {
+                response.close();
+            }
+        };
+    }
+
+    private static void acquirePermit(UpstreamRateGovernor governor, AngelOneEndpoint endpoint) throws IOException {
+        try {
+            governor.acquire(endpoint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for an AngelOne rate permit");
+        }
     }
 }
@@ -0,0 +1,91 @@
+package com.assetserve.monetary.config;
+
+import com.assetserve.monetary.service.AngelOneEndpoint;
+import com.assetserve.monetary.service.JwtService;
+import com.assetserve.monetary.service.MarketDataService;
+import com.assetserve.monetary.service.UpstreamRateGovernor;
+import com.assetserve.monetary.service.UserIdentityService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Publishes the in-process caches to Micrometer under the standard cache meter names
+ * (cache.gets by hit/miss, cache.size) plus a lifetime cache.hit.ratio gauge. HTTP server latency
+ * and Spring Data repository timings come from Boot's own instrumentation; the AngelOne client
+ * and the JWT filter record their own timers. The upstream rate governor is published per
+ * endpoint and lane as angelone.rate.* meters (queue depth, permit waits, rejections).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(MarketDataService marketDataService, JwtService jwtService,
+                                    UserIdentityService userIdentityService) {
+        return registry -> {
+            bindCache(registry, "ltp", marketDataService, m -> m.getCacheStats().get("ltp"));
+            bindCache(registry, "indices", marketDataService, m -> m.getCacheStats().get("indices"));
+            bindCache(registry, "jwt", jwtService, JwtService::cacheStats);
+            bindCache(registry, "userIdentity", userIdentityService, UserIdentityService::cacheStats);
+        };
+    }
+
+    @Bean
+    public MeterBinder upstreamRateMetrics(UpstreamRateGovernor governor) {
+        return registry -> {
+            for (AngelOneEndpoint endpoint : AngelOneEndpoint.values()) {
+                String key = endpoint.getPropertyKey();
+                for (UpstreamRateGovernor.Lane lane : UpstreamRateGovernor.Lane.values()) {
+                    String prefix = lane.name().toLowerCase() + ".";
+                    Gauge.builder("angelone.rate.queued", governor, g -> g.stats(endpoint).get(prefix + "queued"))
+                            .description("Callers waiting for an AngelOne rate permit")
+                            .tags("endpoint", key, "lane", lane.name().toLowerCase())
+                            .register(registry);
+                    FunctionTimer.builder("angelone.rate.wait", governor,
+                                    g -> g.stats(endpoint).get(prefix + "granted"),
+                                    g -> g.stats(endpoint).get(prefix + "waitedMs"), TimeUnit.MILLISECONDS)
+                            .description("Time spent waiting for granted AngelOne rate permits")
+                            .tags("endpoint", key, "lane", lane.name().toLowerCase())
+                            .register(registry);
+                    Gauge.builder("angelone.rate.wait.max", governor, g -> g.stats(endpoint).get(prefix + "maxWaitMs") / 1000.0)
+                            .description("Longest wait for a granted AngelOne rate permit since startup")
+                            .baseUnit("seconds")
+                            .tags("endpoint", key, "lane", lane.name().toLowerCase())
+                            .register(registry);
+                }
+                FunctionCounter.builder("angelone.rate.rejected", governor, g -> g.stats(endpoint).get("rejected"))
+                        .description("Requests that gave up waiting for an AngelOne rate permit")
+                        .tag("endpoint", key)
+                        .register(registry);
+            }
+        };
+    }
+
+    // stats reads a map with "hits", "misses" and "size" from the owning bean, as PriceCache.stats() does
+    private static <T> void bindCache(MeterRegistry registry, String name, T owner, Function<T, Map<String, Long>> stats) {
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).get("hits"))
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).get("misses"))
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", owner, o -> stats.apply(o).get("size"))
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", owner, o -> {
+                    Map<String, Long> current = stats.apply(o);
+                    long lookups = current.get("hits") + current.get("misses");
+                    return lookups == 0 ? Double.NaN : (double) current.get("hits") / lookups;
+                })
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -1,12 +1,17 @@
 package com.assetserve.monetary.config;
 
 import com.assetserve.monetary.filter.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -31,7 +36,13 @@ public class SecurityConfig {
     private final Http401UnauthorizedEntryPoint unauthorizedEntryPoint;
 
     @Bean // Creates a "Bean" (a managed object) that defines our security rules
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   @Value("${management.server.port}") int managementPort,
+                                                   @Value("${server.port:8080}") int serverPort,
+                                                   Environment environment) throws Exception {
+        // Offline SmartStream stand-in: only registered, and only reachable, with the stream-stub profile
+        boolean streamStub = environment.acceptsProfiles(Profiles.of("stream-stub"));
+
         http
                 // 1. Disable CSRF protection. This is standard for stateless REST APIs
                 // that use JSON, not HTML forms.
@@ -42,8 +53,17 @@ public class SecurityConfig {
 
                 // 2. This is the most important part: The "Whitelist"
                 .authorizeHttpRequests(authz -> authz
+                        // SSE streams complete on an async dispatch, which was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         // This makes your /api/auth/register endpoint public.
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Liveness/readiness probes on the public port
+                        .requestMatchers("/livez", "/readyz").permitAll()
+                        // The management port only serves health and the Prometheus scrape, and is never published
+                        .requestMatchers(request -> managementPort != serverPort
+                                && request.getLocalPort() == managementPort).permitAll()
+                        .requestMatchers("/stub/**").access((authentication, context) ->
+                                new AuthorizationDecision(streamStub))
                         //For any other request in the application...
                         .anyRequest()
                         //user MUST be authenticated.
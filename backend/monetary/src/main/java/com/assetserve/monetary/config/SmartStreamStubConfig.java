@@ -0,0 +1,27 @@
+package com.assetserve.monetary.config;
+
+import com.assetserve.monetary.service.SmartStreamStubServer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Exposes the offline SmartStream stand-in at /stub/smart-stream when the
+ * "stream-stub" profile is active.
+ */
+@Configuration
+@Profile("stream-stub")
+@EnableWebSocket
+@RequiredArgsConstructor
+public class SmartStreamStubConfig implements WebSocketConfigurer {
+
+    private final SmartStreamStubServer smartStreamStubServer;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(smartStreamStubServer, "/stub/smart-stream");
+    }
+}
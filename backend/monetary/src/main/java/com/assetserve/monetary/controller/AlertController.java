@@ -0,0 +1,26 @@
+package com.assetserve.monetary.controller;
+
+import com.assetserve.monetary.model.AlertNotification;
+import com.assetserve.monetary.service.AlertInboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// In-app inbox of triggered watchlist price alerts; live delivery is on /api/v1/stream/alerts
+@RestController
+@RequestMapping("/api/v1/alerts")
+@RequiredArgsConstructor
+public class AlertController {
+
+    private final AlertInboxService alertInboxService;
+
+    @GetMapping
+    public ResponseEntity<List<AlertNotification>> getInbox(Authentication authentication) {
+        return ResponseEntity.ok(alertInboxService.getInbox(authentication.getName()));
+    }
+}
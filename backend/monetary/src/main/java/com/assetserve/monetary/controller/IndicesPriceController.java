@@ -1,7 +1,9 @@
 package com.assetserve.monetary.controller;
 
 import com.assetserve.monetary.dto.IndexQuote;
+import com.assetserve.monetary.exception.UpstreamThrottledException;
 import com.assetserve.monetary.service.MarketDataService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.Map;
 
 @RestController
+@Slf4j
 @RequestMapping("/api/v1/market")
 public class IndicesPriceController {
     @Autowired
@@ -30,8 +33,11 @@ public class IndicesPriceController {
 
             return ResponseEntity.ok(indices);
 
+        } catch (UpstreamThrottledException e) {
+            // 503 with Retry-After from GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
-            System.err.println("Error in controller: " + e.getMessage());
+            log.error("Error fetching index LTPs", e);
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -48,8 +54,11 @@ public class IndicesPriceController {
 
             return ResponseEntity.ok(data);
 
+        } catch (UpstreamThrottledException e) {
+            // 503 with Retry-After from GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
+            log.error("Error fetching index quotes", e);
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -2,8 +2,9 @@ package com.assetserve.monetary.controller;
 
 import com.assetserve.monetary.dto.AddAssetRequest;
 import com.assetserve.monetary.dto.PortfolioAssetResponse;
+import com.assetserve.monetary.dto.PortfolioHistoryPoint;
+import com.assetserve.monetary.dto.PortfolioSummary;
 import com.assetserve.monetary.model.Asset;
-import com.assetserve.monetary.model.PortfolioHistory;
 import com.assetserve.monetary.service.PortfolioService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
@@ -55,6 +56,12 @@ public class PortfolioController {
 
         return ResponseEntity.ok(portfolio);
     }
+
+    @GetMapping("/summary")
+    public ResponseEntity<PortfolioSummary> getSummary(Authentication authentication) {
+        return ResponseEntity.ok(portfolioService.getPortfolioSummary(authentication.getName()));
+    }
+
     @DeleteMapping("/assets/{id}")
     public ResponseEntity<Void> deleteAsset(
             /*
@@ -77,11 +84,11 @@ public class PortfolioController {
         }
     }
     @GetMapping("/history")
-    public ResponseEntity<List<PortfolioHistory>> getHistory(
+    public ResponseEntity<List<PortfolioHistoryPoint>> getHistory(
             @RequestParam(value = "range", defaultValue = "all") String range, Authentication authentication
     ){
         String userEmail = authentication.getName();
-        List<PortfolioHistory> history = portfolioService.getPortfolioHistory(userEmail, range);
+        List<PortfolioHistoryPoint> history = portfolioService.getPortfolioHistory(userEmail, range);
         return ResponseEntity.ok(history);
     }
 }
\ No newline at end of file
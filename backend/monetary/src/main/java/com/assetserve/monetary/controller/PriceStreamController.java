@@ -0,0 +1,39 @@
+package com.assetserve.monetary.controller;
+
+import com.assetserve.monetary.service.PriceStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Server-Sent Events versions of the polled market, portfolio and watchlist endpoints, plus price alerts
+@RestController
+@RequestMapping("/api/v1/stream")
+@RequiredArgsConstructor
+public class PriceStreamController {
+
+    private final PriceStreamService priceStreamService;
+
+    @GetMapping(value = "/indices", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamIndices() {
+        return priceStreamService.subscribeIndices();
+    }
+
+    @GetMapping(value = "/portfolio", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPortfolio(Authentication authentication) {
+        return priceStreamService.subscribePortfolio(authentication.getName());
+    }
+
+    @GetMapping(value = "/watchlist", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamWatchlist(Authentication authentication) {
+        return priceStreamService.subscribeWatchlist(authentication.getName());
+    }
+
+    @GetMapping(value = "/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(Authentication authentication) {
+        return priceStreamService.subscribeAlerts(authentication.getName());
+    }
+}
@@ -1,7 +1,8 @@
 package com.assetserve.monetary.controller;
 
-import com.assetserve.monetary.dto.ScripPriceData;
-import com.assetserve.monetary.service.MarketDataService;
+import com.assetserve.monetary.dto.CandleSeries;
+import com.assetserve.monetary.service.CandleDownsampler;
+import com.assetserve.monetary.service.HistoricalCandleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,25 +10,28 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("api/v1/priceHistory")
 @RequiredArgsConstructor
 public class ScripPriceController {
-    private final MarketDataService marketDataService;
+    private final HistoricalCandleService historicalCandleService;
 
     @GetMapping
-    public ResponseEntity<List<ScripPriceData>> getScriptPrices(
+    public ResponseEntity<CandleSeries> getScriptPrices(
             @RequestParam("exchange") String exchange,
             @RequestParam("symboltoken") String symboltoken,
             @RequestParam(value = "interval", defaultValue = "ONE_DAY")String interval,
             @RequestParam("fromDate") String fromDate,
-            @RequestParam("toDate") String toDate
+            @RequestParam("toDate") String toDate,
+            // Optional chart width in points; longer series are downsampled with LTTB
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints
     ){
-        List<ScripPriceData> scripPrices = marketDataService.getPriceData(
+        CandleSeries scripPrices = historicalCandleService.getCandles(
                 exchange, symboltoken, interval, fromDate, toDate
         );
+        if (maxPoints != null) {
+            scripPrices = CandleDownsampler.lttb(scripPrices, maxPoints);
+        }
         return ResponseEntity.ok(scripPrices);
     }
 }
@@ -1,6 +1,7 @@
 package com.assetserve.monetary.controller;
 
-import com.assetserve.monetary.service.MarketDataService;
+import com.assetserve.monetary.dto.Instrument;
+import com.assetserve.monetary.service.InstrumentRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,16 +9,22 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/search")
 @RequiredArgsConstructor
 public class SearchController {
-    private final MarketDataService marketDataService;
+    private static final int MAX_LIMIT = 50;
+
+    private final InstrumentRegistry instrumentRegistry;
 
     @GetMapping
-    public ResponseEntity<String> search(@RequestParam("query") String query) {
+    public ResponseEntity<List<Instrument>> search(@RequestParam("query") String query,
+                                                   @RequestParam(value = "exchange", required = false) String exchange,
+                                                   @RequestParam(value = "limit", defaultValue = "20") int limit) {
 
-        String result = marketDataService.searchInstruments(query);
+        List<Instrument> result = instrumentRegistry.search(query, exchange, Math.min(Math.max(limit, 1), MAX_LIMIT));
         return ResponseEntity.ok(result);
     }
 }
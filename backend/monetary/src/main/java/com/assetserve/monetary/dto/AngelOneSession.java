@@ -0,0 +1,20 @@
+package com.assetserve.monetary.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+// One AngelOne login: published as a whole so readers never see a mix of old and new tokens
+@Value
+@Builder(toBuilder = true)
+public class AngelOneSession {
+    String jwtToken;
+    String refreshToken;
+    String feedToken;
+    long issuedAt;
+    long expiresAt;
+
+    // Network details sent with every request; resolved once per process
+    String clientLocalIp;
+    String clientPublicIp;
+    String macAddress;
+}
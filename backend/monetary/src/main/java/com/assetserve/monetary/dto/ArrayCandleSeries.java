@@ -0,0 +1,124 @@
+package com.assetserve.monetary.dto;
+
+import java.util.Arrays;
+
+/**
+ * Heap-backed {@link CandleSeries} built from primitive column arrays that grow as candles are appended.
+ */
+public class ArrayCandleSeries implements CandleSeries {
+
+    private long[] timestamps;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private long[] volume;
+    private int size;
+
+    public ArrayCandleSeries() {
+        this(256);
+    }
+
+    public ArrayCandleSeries(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        timestamps = new long[capacity];
+        open = new double[capacity];
+        high = new double[capacity];
+        low = new double[capacity];
+        close = new double[capacity];
+        volume = new long[capacity];
+    }
+
+    public void add(long timestamp, double o, double h, double l, double c, long v) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        timestamps[size] = timestamp;
+        open[size] = o;
+        high[size] = h;
+        low[size] = l;
+        close[size] = c;
+        volume[size] = v;
+        size++;
+    }
+
+    // Append candle i of another series
+    public void add(CandleSeries source, int index) {
+        add(source.getTimestamp(index), source.getOpen(index), source.getHigh(index),
+                source.getLow(index), source.getClose(index), source.getVolume(index));
+    }
+
+    // Copy of the candles with fromMillis <= timestamp <= toMillis
+    public static ArrayCandleSeries slice(CandleSeries source, long fromMillis, long toMillis) {
+        int from = source.indexAtOrAfter(fromMillis);
+        int to = toMillis == Long.MAX_VALUE ? source.size() : source.indexAtOrAfter(toMillis + 1);
+        ArrayCandleSeries slice = new ArrayCandleSeries(Math.max(to - from, 1));
+        for (int i = from; i < to; i++) {
+            slice.add(source, i);
+        }
+        return slice;
+    }
+
+    // Merge two ascending series; on equal timestamps the candle from updates wins
+    public static ArrayCandleSeries merge(CandleSeries base, CandleSeries updates) {
+        ArrayCandleSeries merged = new ArrayCandleSeries(base.size() + updates.size());
+        int i = 0;
+        int j = 0;
+        while (i < base.size() || j < updates.size()) {
+            if (j == updates.size() || (i < base.size() && base.getTimestamp(i) < updates.getTimestamp(j))) {
+                merged.add(base, i++);
+            } else {
+                if (i < base.size() && base.getTimestamp(i) == updates.getTimestamp(j)) {
+                    i++;
+                }
+                merged.add(updates, j++);
+            }
+        }
+        return merged;
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    @Override
+    public double getOpen(int index) {
+        return open[index];
+    }
+
+    @Override
+    public double getHigh(int index) {
+        return high[index];
+    }
+
+    @Override
+    public double getLow(int index) {
+        return low[index];
+    }
+
+    @Override
+    public double getClose(int index) {
+        return close[index];
+    }
+
+    @Override
+    public long getVolume(int index) {
+        return volume[index];
+    }
+}
@@ -0,0 +1,39 @@
+package com.assetserve.monetary.dto;
+
+import java.time.Duration;
+
+// Candle intervals supported by AngelOne getCandleData, with the widest range one request may span
+public enum CandleInterval {
+    ONE_MINUTE(Duration.ofMinutes(1), 30),
+    THREE_MINUTE(Duration.ofMinutes(3), 60),
+    FIVE_MINUTE(Duration.ofMinutes(5), 100),
+    TEN_MINUTE(Duration.ofMinutes(10), 100),
+    FIFTEEN_MINUTE(Duration.ofMinutes(15), 200),
+    THIRTY_MINUTE(Duration.ofMinutes(30), 200),
+    ONE_HOUR(Duration.ofHours(1), 400),
+    ONE_DAY(Duration.ofDays(1), 2000);
+
+    private final Duration duration;
+    private final int maxDaysPerRequest;
+
+    CandleInterval(Duration duration, int maxDaysPerRequest) {
+        this.duration = duration;
+        this.maxDaysPerRequest = maxDaysPerRequest;
+    }
+
+    public static CandleInterval fromName(String name) {
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unsupported candle interval: " + name);
+        }
+    }
+
+    public long getMillis() {
+        return duration.toMillis();
+    }
+
+    public long getMaxRequestMillis() {
+        return Duration.ofDays(maxDaysPerRequest).toMillis();
+    }
+}
@@ -0,0 +1,11 @@
+package com.assetserve.monetary.dto;
+
+import lombok.Value;
+
+// Identifies one candle history: an instrument at one interval
+@Value
+public class CandleKey {
+    String exchange;
+    String symbolToken;
+    CandleInterval interval;
+}
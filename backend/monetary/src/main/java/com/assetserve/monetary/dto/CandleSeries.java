@@ -0,0 +1,41 @@
+package com.assetserve.monetary.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Column-oriented OHLCV candles. Values are read by index instead of through one object
+ * per candle, and serialize straight from the columns to the same JSON shape the
+ * frontend expects: [{timestamp, open, high, low, close, volume}, ...].
+ */
+@JsonSerialize(using = CandleSeriesSerializer.class)
+public interface CandleSeries {
+
+    int size();
+
+    long getTimestamp(int index); // epoch millis
+
+    double getOpen(int index);
+
+    double getHigh(int index);
+
+    double getLow(int index);
+
+    double getClose(int index);
+
+    long getVolume(int index);
+
+    // Index of the first candle with timestamp >= epochMillis (size() if none); assumes ascending timestamps
+    default int indexAtOrAfter(long epochMillis) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getTimestamp(mid) < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,36 @@
+package com.assetserve.monetary.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes a CandleSeries column by column without materializing per-candle objects
+public class CandleSeriesSerializer extends StdSerializer<CandleSeries> {
+
+    public CandleSeriesSerializer() {
+        super(CandleSeries.class);
+    }
+
+    @Override
+    public void serialize(CandleSeries series, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] timestamp = new char[CandleTimestamps.LENGTH];
+        int size = series.size();
+
+        gen.writeStartArray(series, size);
+        for (int i = 0; i < size; i++) {
+            gen.writeStartObject();
+            gen.writeFieldName("timestamp");
+            CandleTimestamps.format(series.getTimestamp(i), timestamp, 0);
+            gen.writeString(timestamp, 0, CandleTimestamps.LENGTH);
+            gen.writeNumberField("open", series.getOpen(i));
+            gen.writeNumberField("high", series.getHigh(i));
+            gen.writeNumberField("low", series.getLow(i));
+            gen.writeNumberField("close", series.getClose(i));
+            gen.writeNumberField("volume", series.getVolume(i));
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+}
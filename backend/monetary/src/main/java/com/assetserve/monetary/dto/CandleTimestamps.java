@@ -0,0 +1,102 @@
+package com.assetserve.monetary.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Allocation-free conversion between epoch millis and AngelOne candle timestamps
+ * ("2024-01-05T09:15:00+05:30"). Output is always rendered in IST, like the API.
+ */
+public final class CandleTimestamps {
+
+    public static final int LENGTH = 25;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int IST_OFFSET_SECONDS = 5 * 3600 + 30 * 60;
+
+    private CandleTimestamps() {
+    }
+
+    public static long parse(char[] text, int offset, int length) {
+        if (length != LENGTH || text[offset + 10] != 'T' || (text[offset + 19] != '+' && text[offset + 19] != '-')) {
+            // Unexpected shape (e.g. fractional seconds or 'Z'); take the slow path
+            return OffsetDateTime.parse(new String(text, offset, length)).toInstant().toEpochMilli();
+        }
+
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        int hour = digits(text, offset + 11, 2);
+        int minute = digits(text, offset + 14, 2);
+        int second = digits(text, offset + 17, 2);
+        int offsetSeconds = digits(text, offset + 20, 2) * 3600 + digits(text, offset + 23, 2) * 60;
+        if (text[offset + 19] == '-') {
+            offsetSeconds = -offsetSeconds;
+        }
+
+        long epochSeconds = daysFromCivil(year, month, day) * 86_400L
+                + hour * 3600L + minute * 60L + second - offsetSeconds;
+        return epochSeconds * 1000L;
+    }
+
+    // Writes LENGTH chars into out starting at offset
+    public static void format(long epochMillis, char[] out, int offset) {
+        long local = epochMillis + IST_OFFSET_SECONDS * 1000L;
+        long days = Math.floorDiv(local, MILLIS_PER_DAY);
+        int secondOfDay = (int) (Math.floorMod(local, MILLIS_PER_DAY) / 1000L);
+
+        // civil-from-days (proleptic Gregorian), see H. Hinnant's date algorithms
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        int doe = (int) (z - era * 146_097);
+        int yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+
+        put(out, offset, year, 4);
+        out[offset + 4] = '-';
+        put(out, offset + 5, month, 2);
+        out[offset + 7] = '-';
+        put(out, offset + 8, day, 2);
+        out[offset + 10] = 'T';
+        put(out, offset + 11, secondOfDay / 3600, 2);
+        out[offset + 13] = ':';
+        put(out, offset + 14, (secondOfDay / 60) % 60, 2);
+        out[offset + 16] = ':';
+        put(out, offset + 17, secondOfDay % 60, 2);
+        out[offset + 19] = '+';
+        put(out, offset + 20, IST_OFFSET_SECONDS / 3600, 2);
+        out[offset + 22] = ':';
+        put(out, offset + 23, (IST_OFFSET_SECONDS / 60) % 60, 2);
+    }
+
+    static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097L + doe - 719_468;
+    }
+
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            char c = text[offset + i];
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid candle timestamp: " + new String(text, offset, count));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void put(char[] out, int offset, int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            out[offset + i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.assetserve.monetary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One row of the AngelOne instrument master (OpenAPIScripMaster.json)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Instrument {
+    private String exchange;       // exch_seg: NSE, BSE, NFO, MCX, ...
+    private String token;
+    private String symbol;         // e.g. RELIANCE-EQ, NIFTY26DEC24FUT
+    private String name;           // e.g. RELIANCE, NIFTY
+    private String instrumentType; // empty for cash equities, FUTIDX/OPTSTK/... for derivatives
+    private LocalDate expiry;      // null for cash instruments
+    private double strike;         // rupees; -1 when not an option
+    private int lotSize;
+    private double tickSize;       // rupees
+}
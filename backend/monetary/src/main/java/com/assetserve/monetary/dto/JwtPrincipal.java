@@ -0,0 +1,25 @@
+package com.assetserve.monetary.dto;
+
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The authenticated user as described by a verified JWT. Built from the token claims alone,
+ * so authenticating a request needs no database lookup. {@link #getName()} is the email,
+ * which keeps {@code Authentication.getName()} unchanged for controllers and services.
+ */
+@Value
+public class JwtPrincipal implements Principal {
+    Long userId;
+    String email;
+    List<GrantedAuthority> authorities;
+    long expiresAtMillis;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
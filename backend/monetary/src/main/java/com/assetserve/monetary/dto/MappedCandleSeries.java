@@ -0,0 +1,71 @@
+package com.assetserve.monetary.dto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only {@link CandleSeries} view over columnar candle data in a (memory-mapped) buffer.
+ * Each column holds {@code capacity} 8-byte slots starting at {@code columnsOffset}, in the order
+ * timestamp, open, high, low, close, volume. Slicing only moves the window; nothing is copied.
+ */
+public final class MappedCandleSeries implements CandleSeries {
+
+    private static final int SLOT = Long.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int columnsOffset;
+    private final int capacity;
+    private final int first;
+    private final int size;
+
+    public MappedCandleSeries(ByteBuffer buffer, int columnsOffset, int capacity, int first, int size) {
+        this.buffer = buffer;
+        this.columnsOffset = columnsOffset;
+        this.capacity = capacity;
+        this.first = first;
+        this.size = size;
+    }
+
+    // View of candles [from, to) of this series
+    public MappedCandleSeries slice(int from, int to) {
+        return new MappedCandleSeries(buffer, columnsOffset, capacity, first + from, to - from);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getTimestamp(int index) {
+        return buffer.getLong(offset(0, index));
+    }
+
+    @Override
+    public double getOpen(int index) {
+        return buffer.getDouble(offset(1, index));
+    }
+
+    @Override
+    public double getHigh(int index) {
+        return buffer.getDouble(offset(2, index));
+    }
+
+    @Override
+    public double getLow(int index) {
+        return buffer.getDouble(offset(3, index));
+    }
+
+    @Override
+    public double getClose(int index) {
+        return buffer.getDouble(offset(4, index));
+    }
+
+    @Override
+    public long getVolume(int index) {
+        return buffer.getLong(offset(5, index));
+    }
+
+    private int offset(int column, int index) {
+        return columnsOffset + (column * capacity + first + index) * SLOT;
+    }
+}
@@ -0,0 +1,30 @@
+package com.assetserve.monetary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketTick {
+    private String exchange;
+    private String token;
+    private int mode; // 1 = LTP, 2 = QUOTE
+    private long sequenceNumber;
+    private long exchangeTimestamp; // epoch millis
+    private double ltp;
+
+    // Only populated for QUOTE mode ticks
+    private long lastTradedQuantity;
+    private double averageTradedPrice;
+    private long volume;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+
+    private long receivedAt; // local epoch millis, used for freshness checks
+}
@@ -0,0 +1,13 @@
+package com.assetserve.monetary.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One point of the portfolio value chart; field names match the old entity payload
+@Value
+public class PortfolioHistoryPoint {
+    LocalDate snapshotData;
+    BigDecimal portfolioValue;
+}
@@ -0,0 +1,15 @@
+package com.assetserve.monetary.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class PortfolioSummary {
+    private int positions;
+    private BigDecimal totalValue;
+    private BigDecimal costBasis;
+    private BigDecimal profitAndLoss;
+}
@@ -0,0 +1,32 @@
+package com.assetserve.monetary.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+// A watchlist target price that the market has just crossed
+@Value
+@Builder
+public class PriceAlert {
+
+    public enum Direction {
+        // Price rose to or through the target
+        ABOVE,
+        // Price fell to or through the target
+        BELOW
+    }
+
+    Long watchlistId;
+    // Lets the inbox store the alert without looking the user up again
+    @JsonIgnore
+    Long userId;
+    String userEmail;
+    String symbolToken;
+    String symbolName;
+    Direction direction;
+    double targetPrice;
+    double triggerPrice;
+    Instant triggeredAt;
+}
@@ -0,0 +1,15 @@
+package com.assetserve.monetary.dto;
+
+import java.time.Instant;
+
+// The columns of a watchlist row the price alert engine needs, read without loading entities
+public interface WatchlistTarget {
+    Long getId();
+    Long getUserId();
+    String getUserEmail();
+    String getSymbolToken();
+    String getSymbolName();
+    Double getProjectedBuyPrice();
+    Double getCurrentLtp();
+    Instant getTargetFiredAt();
+}
@@ -1,5 +1,6 @@
 package com.assetserve.monetary.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -32,6 +33,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
 
+    // The AngelOne rate budget is exhausted; tell the client to retry rather than show zero prices
+    @ExceptionHandler(UpstreamThrottledException.class)
+    public ResponseEntity<Map<String, Object>> handleUpstreamThrottled(UpstreamThrottledException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        error.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
         Map<String, Object> error = new HashMap<>();
@@ -0,0 +1,12 @@
+package com.assetserve.monetary.exception;
+
+import com.assetserve.monetary.service.AngelOneEndpoint;
+
+// Thrown when a request could not get an upstream permit within its lane's maximum wait.
+// Unchecked so it passes through RestTemplate unwrapped and is never mistaken for "no price".
+public class UpstreamThrottledException extends RuntimeException {
+
+    public UpstreamThrottledException(AngelOneEndpoint endpoint, long waitedMillis) {
+        super("AngelOne " + endpoint.getPropertyKey() + " rate budget exhausted after waiting " + waitedMillis + " ms");
+    }
+}
@@ -1,6 +1,9 @@
 package com.assetserve.monetary.filter;
 
+import com.assetserve.monetary.dto.JwtPrincipal;
 import com.assetserve.monetary.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,8 +12,6 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,7 +23,7 @@ import java.io.IOException;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
 
     @Override // Make sure the @Override annotation is present
     protected void doFilterInternal(
@@ -40,27 +41,33 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         // Extract and validate JWT token
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "authenticated";
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractEmail(jwt);
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
+            // One verification pass; the principal comes from the token claims, not the database
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                JwtPrincipal principal = jwtService.verify(jwt);
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal, null, principal.getAuthorities());
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             // If JWT parsing fails (invalid token, expired, etc.), clear security context
             // and let Spring Security handle the unauthorized request
             SecurityContextHolder.clearContext();
+            result = "rejected";
             // Don't set authentication - let Spring Security reject the request
         }
+        sample.stop(Timer.builder("auth.jwt.filter")
+                .description("Bearer token verification in the JWT filter")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
         
         filterChain.doFilter(request, response);
     }
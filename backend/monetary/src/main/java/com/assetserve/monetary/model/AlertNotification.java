@@ -0,0 +1,50 @@
+package com.assetserve.monetary.model;
+
+import com.assetserve.monetary.dto.PriceAlert;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// In-app inbox entry for a triggered price alert
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "alert_inbox", indexes = {
+        @Index(name = "idx_alert_inbox_user_created", columnList = "user_id, createdAt")
+})
+public class AlertNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String symbolToken;
+
+    private String symbolName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PriceAlert.Direction direction;
+
+    @Column(nullable = false)
+    private Double targetPrice;
+
+    @Column(nullable = false)
+    private Double triggerPrice;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
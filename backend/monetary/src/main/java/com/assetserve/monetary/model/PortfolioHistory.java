@@ -15,7 +15,10 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name="portfolio_history")
+// One row per user and day; the snapshot job upserts against this constraint
+@Table(name="portfolio_history", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_portfolio_history_user_date", columnNames = {"user_id", "snapshot_data"})
+})
 public class PortfolioHistory {
 
     @Id
@@ -0,0 +1,63 @@
+package com.assetserve.monetary.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Weekly and monthly close of a user's portfolio value: the last daily snapshot of each period.
+ * Kept current by the snapshot job so long chart ranges never scan the daily history.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "portfolio_history_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_portfolio_rollup_user_period", columnNames = {"user_id", "granularity", "period_start"})
+})
+public class PortfolioHistoryRollup {
+
+    public enum Granularity {
+        // Periods start on Monday, as Postgres date_trunc('week') does
+        WEEK,
+        MONTH;
+
+        public LocalDate periodStart(LocalDate date) {
+            return this == WEEK
+                    ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    : date.withDayOfMonth(1);
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Column(nullable = false)
+    private LocalDate periodStart;
+
+    // Date of the snapshot the value was taken from
+    @Column(nullable = false)
+    private LocalDate snapshotData;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal portfolioValue;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
@@ -0,0 +1,25 @@
+package com.assetserve.monetary.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Marks a rollup granularity as backfilled from the daily history, so the backfill runs exactly once
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "portfolio_history_rollup_backfill")
+public class PortfolioRollupBackfill {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private PortfolioHistoryRollup.Granularity granularity;
+
+    @Column(nullable = false)
+    private Instant completedAt;
+}
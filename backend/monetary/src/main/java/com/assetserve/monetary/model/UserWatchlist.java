@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 
 
 @Data
@@ -36,6 +37,9 @@ public class UserWatchlist {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    // When the price alert for projectedBuyPrice fired; cleared when the target changes
+    private Instant targetFiredAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -0,0 +1,10 @@
+package com.assetserve.monetary.repository;
+
+import com.assetserve.monetary.model.AlertNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AlertNotificationRepository extends JpaRepository<AlertNotification, Long> {
+    List<AlertNotification> findTop50ByUserIdOrderByCreatedAtDesc(Long userId);
+}
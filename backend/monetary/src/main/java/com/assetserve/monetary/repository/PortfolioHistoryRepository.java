@@ -1,19 +1,22 @@
 package com.assetserve.monetary.repository;
 
+import com.assetserve.monetary.dto.PortfolioHistoryPoint;
 import com.assetserve.monetary.model.PortfolioHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
 
 public interface PortfolioHistoryRepository extends JpaRepository<PortfolioHistory, Long> {
-    /**
-     * This is the "magic" method for our chart.
-     * Spring Data JPA will automatically write the SQL query:
-     * "SELECT * FROM portfolio_history
-     * WHERE user_id = ?
-     * AND snapshot_date > ?
-     * ORDER BY snapshot_date ASC"
-     */
-    List<PortfolioHistory> findByUserIdAndSnapshotDataAfterOrderBySnapshotDataAsc(Long userId, LocalDate afterDate);
+    // Daily points for the chart; (date, value) only, served by uk_portfolio_history_user_date
+    @Query("SELECT new com.assetserve.monetary.dto.PortfolioHistoryPoint(h.snapshotData, h.portfolioValue) " +
+            "FROM PortfolioHistory h WHERE h.user.id = :userId AND h.snapshotData > :after " +
+            "ORDER BY h.snapshotData ASC")
+    List<PortfolioHistoryPoint> findPoints(@Param("userId") Long userId, @Param("after") LocalDate after);
+
+    // First day with a snapshot after the given date, or null; decides how finely a range is served
+    @Query("SELECT MIN(h.snapshotData) FROM PortfolioHistory h WHERE h.user.id = :userId AND h.snapshotData > :after")
+    LocalDate findFirstSnapshotAfter(@Param("userId") Long userId, @Param("after") LocalDate after);
 }
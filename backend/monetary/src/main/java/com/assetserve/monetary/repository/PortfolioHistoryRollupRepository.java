@@ -0,0 +1,20 @@
+package com.assetserve.monetary.repository;
+
+import com.assetserve.monetary.dto.PortfolioHistoryPoint;
+import com.assetserve.monetary.model.PortfolioHistoryRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PortfolioHistoryRollupRepository extends JpaRepository<PortfolioHistoryRollup, Long> {
+    // Weekly or monthly closes for the chart, served by uk_portfolio_rollup_user_period
+    @Query("SELECT new com.assetserve.monetary.dto.PortfolioHistoryPoint(r.snapshotData, r.portfolioValue) " +
+            "FROM PortfolioHistoryRollup r WHERE r.user.id = :userId AND r.granularity = :granularity " +
+            "AND r.snapshotData > :after ORDER BY r.periodStart ASC")
+    List<PortfolioHistoryPoint> findPoints(@Param("userId") Long userId,
+                                           @Param("granularity") PortfolioHistoryRollup.Granularity granularity,
+                                           @Param("after") LocalDate after);
+}
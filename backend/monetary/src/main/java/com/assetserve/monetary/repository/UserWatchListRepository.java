@@ -1,8 +1,14 @@
 package com.assetserve.monetary.repository;
 
+import com.assetserve.monetary.dto.WatchlistTarget;
 import com.assetserve.monetary.model.UserWatchlist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +17,28 @@ public interface UserWatchListRepository extends JpaRepository<UserWatchlist, Lo
     Optional<UserWatchlist> findByUserIdAndSymbolToken(Long userId, String symbolToken);
     boolean existsByUserIdAndSymbolToken(Long userId, String symbolToken);
     void deleteByUserIdAndSymbolToken(Long userId, String symbolToken);
+
+    // Every user's row for the token in one statement
+    @Modifying
+    @Query("update UserWatchlist w set w.currentLtp = :ltp where w.symbolToken = :symbolToken")
+    int updateCurrentLtp(@Param("symbolToken") String symbolToken, @Param("ltp") Double ltp);
+
+    // Record that the alert for this target fired; a no-op if the target was changed in the meantime
+    @Transactional
+    @Modifying
+    @Query("update UserWatchlist w set w.targetFiredAt = :firedAt "
+            + "where w.id = :id and w.projectedBuyPrice = :target and w.targetFiredAt is null")
+    int markTargetFired(@Param("id") Long id, @Param("target") Double target, @Param("firedAt") Instant firedAt);
+
+    // Alert targets for every user, loaded once when the alert engine starts
+    @Query("select w.id as id, u.id as userId, u.email as userEmail, w.symbolToken as symbolToken, w.symbolName as symbolName, "
+            + "w.projectedBuyPrice as projectedBuyPrice, w.currentLtp as currentLtp, w.targetFiredAt as targetFiredAt "
+            + "from UserWatchlist w join w.user u")
+    List<WatchlistTarget> findAllTargets();
+
+    @Query("select w.id as id, u.id as userId, u.email as userEmail, w.symbolToken as symbolToken, w.symbolName as symbolName, "
+            + "w.projectedBuyPrice as projectedBuyPrice, w.currentLtp as currentLtp, w.targetFiredAt as targetFiredAt "
+            + "from UserWatchlist w join w.user u "
+            + "where u.email = :email")
+    List<WatchlistTarget> findTargetsByUserEmail(@Param("email") String email);
 }
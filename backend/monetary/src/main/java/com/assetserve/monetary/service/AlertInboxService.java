@@ -0,0 +1,80 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.PriceAlert;
+import com.assetserve.monetary.model.AlertNotification;
+import com.assetserve.monetary.repository.AlertNotificationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-app inbox for triggered price alerts. Alerts are queued as they arrive and inserted together
+ * in one transaction per flush, keeping database work off the alert delivery thread. Alerts carry
+ * their user's id, so a flush does no lookups, and a failed insert puts them back for the next one.
+ */
+@Service
+@Slf4j
+public class AlertInboxService implements AlertSink {
+
+    private final AlertNotificationRepository alertNotificationRepository;
+    private final UserIdentityService userIdentityService;
+    private final ConcurrentLinkedQueue<PriceAlert> queue = new ConcurrentLinkedQueue<>();
+
+    public AlertInboxService(AlertNotificationRepository alertNotificationRepository,
+                             UserIdentityService userIdentityService) {
+        this.alertNotificationRepository = alertNotificationRepository;
+        this.userIdentityService = userIdentityService;
+    }
+
+    @Override
+    public void deliver(PriceAlert alert) {
+        queue.add(alert);
+    }
+
+    public List<AlertNotification> getInbox(String userEmail) {
+        return alertNotificationRepository.findTop50ByUserIdOrderByCreatedAtDesc(
+                userIdentityService.resolveUserId(userEmail));
+    }
+
+    @Scheduled(fixedDelayString = "${alerts.inbox-flush-interval-ms:1000}")
+    public void flush() {
+        List<PriceAlert> alerts = new ArrayList<>();
+        PriceAlert alert;
+        while ((alert = queue.poll()) != null) {
+            alerts.add(alert);
+        }
+        if (alerts.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<AlertNotification> batch = new ArrayList<>(alerts.size());
+            for (PriceAlert triggered : alerts) {
+                batch.add(AlertNotification.builder()
+                        .user(userIdentityService.reference(triggered.getUserId()))
+                        .symbolToken(triggered.getSymbolToken())
+                        .symbolName(triggered.getSymbolName())
+                        .direction(triggered.getDirection())
+                        .targetPrice(triggered.getTargetPrice())
+                        .triggerPrice(triggered.getTriggerPrice())
+                        .createdAt(triggered.getTriggeredAt())
+                        .build());
+            }
+            alertNotificationRepository.saveAll(batch);
+        } catch (Exception e) {
+            // Keep the alerts for the next cycle, like the watchlist LTP writer does
+            queue.addAll(alerts);
+            log.warn("Failed to store {} price alerts in the inbox, retrying next cycle: {}", alerts.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,12 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.PriceAlert;
+
+/**
+ * Destination for triggered price alerts. {@link PriceAlertEngine} hands every alert to each sink
+ * bean on its delivery thread, never on the tick thread, so a sink may block briefly.
+ */
+public interface AlertSink {
+
+    void deliver(PriceAlert alert);
+}
@@ -0,0 +1,57 @@
+package com.assetserve.monetary.service;
+
+/**
+ * Classes of AngelOne SmartAPI endpoints. Each class gets its own timeouts
+ * and (upstream) rate budget; requests are classified by URL path.
+ */
+public enum AngelOneEndpoint {
+    // path fragment, property key, connect/total timeout defaults in ms, requests per second
+    QUOTE("/market/v1/quote", "quote", 2_000, 5_000, 10),
+    CANDLE("/historical/v1/getCandleData", "candle", 2_000, 15_000, 3),
+    SEARCH("/order/v1/searchScrip", "search", 2_000, 5_000, 1),
+    HOLDINGS("/portfolio/v1/getAllHolding", "holdings", 2_000, 8_000, 1),
+    PCR("/marketData/v1/putCallRatio", "pcr", 2_000, 8_000, 1),
+    AUTH("/rest/auth/", "auth", 3_000, 15_000, 1),
+    OTHER("", "other", 2_000, 10_000, 5);
+
+    private final String pathFragment;
+    private final String propertyKey;
+    private final long connectTimeoutMillis;
+    private final long totalTimeoutMillis;
+    private final int requestsPerSecond;
+
+    AngelOneEndpoint(String pathFragment, String propertyKey,
+                     long connectTimeoutMillis, long totalTimeoutMillis,
+                     int requestsPerSecond) {
+        this.pathFragment = pathFragment;
+        this.propertyKey = propertyKey;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.totalTimeoutMillis = totalTimeoutMillis;
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public static AngelOneEndpoint fromPath(String path) {
+        for (AngelOneEndpoint endpoint : values()) {
+            if (endpoint != OTHER && path.contains(endpoint.pathFragment)) {
+                return endpoint;
+            }
+        }
+        return OTHER;
+    }
+
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public long getTotalTimeoutMillis() {
+        return totalTimeoutMillis;
+    }
+
+    public int getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+}
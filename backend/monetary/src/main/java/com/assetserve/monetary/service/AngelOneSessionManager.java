@@ -0,0 +1,324 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.AngelOneSession;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.warrenstrange.googleauth.GoogleAuthenticator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the AngelOne broker session. Login runs off the startup path, the session is renewed with
+ * the refresh token before the JWT expires, and a rejected token triggers one shared re-login no
+ * matter how many requests saw the 401. The current session is published through an
+ * {@link AtomicReference}, so a reader gets either no session or a complete one.
+ */
+@Component
+@Slf4j
+public class AngelOneSessionManager {
+
+    private static final String BASE_URL = "https://apiconnect.angelone.in";
+    private static final String LOGIN_PATH = "/rest/auth/angelbroking/user/v1/loginByPassword";
+    private static final String REFRESH_PATH = "/rest/auth/angelbroking/jwt/v1/generateTokens";
+    private static final long MAX_BACKOFF_MILLIS = 300_000;
+    private static final long DEFAULT_VALIDITY_MILLIS = Duration.ofHours(12).toMillis();
+
+    @Value("${angelone.api.key}")
+    private String apiKey;
+
+    @Value("${angelone.client.id}")
+    private String clientId;
+
+    @Value("${angelone.client.password}")
+    private String clientPassword;
+
+    @Value("${angelone.client.totp}")
+    private String totpSecret;
+
+    @Value("${angelone.client.public-ip:}")
+    private String configuredPublicIp;
+
+    @Value("${angelone.session.renew-before-ms:1800000}")
+    private long renewBeforeMillis;
+
+    @Value("${angelone.session.relogin-wait-ms:15000}")
+    private long reloginWaitMillis;
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<AngelOneSession> session = new AtomicReference<>();
+
+    // Network details are looked up once, on the first login
+    private volatile AngelOneSession network;
+
+    // The login or refresh in progress, shared by everyone who needs a new session
+    private CompletableFuture<AngelOneSession> inFlight;
+    private volatile long nextAttemptAt;
+    private volatile long backoffMillis = 5_000;
+
+    public AngelOneSessionManager(RestTemplate restTemplate, ObjectMapper objectMapper) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // Current session, or null while logged out; never blocks
+    public AngelOneSession current() {
+        return session.get();
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    // Start logging in once the application is up; nothing at startup waits for the broker
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        renew(null, false);
+    }
+
+    // Keep the session alive: log in if there is none, refresh shortly before the JWT expires
+    @Scheduled(fixedDelayString = "${angelone.session.check-interval-ms:30000}")
+    public void maintain() {
+        AngelOneSession current = session.get();
+        if (current == null) {
+            if (System.currentTimeMillis() >= nextAttemptAt) {
+                renew(null, false);
+            }
+        } else if (System.currentTimeMillis() >= current.getExpiresAt() - renewBeforeMillis) {
+            renew(current, true);
+        }
+    }
+
+    /**
+     * Called after AngelOne rejected {@code rejectedJwt}. Concurrent callers share one re-login;
+     * if the session was already replaced, the new one is returned straight away.
+     */
+    public AngelOneSession onUnauthorized(String rejectedJwt) {
+        AngelOneSession current = session.get();
+        if (current != null && !current.getJwtToken().equals(rejectedJwt)) {
+            return current;
+        }
+        try {
+            return renew(current, false).get(reloginWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return session.get();
+        } catch (Exception e) {
+            return session.get();
+        }
+    }
+
+    // Single-flight: join the renewal in progress or start one
+    private synchronized CompletableFuture<AngelOneSession> renew(AngelOneSession stale, boolean tryRefresh) {
+        if (inFlight != null && !inFlight.isDone()) {
+            return inFlight;
+        }
+        AngelOneSession current = session.get();
+        if (stale != null && current != stale) {
+            return CompletableFuture.completedFuture(current);
+        }
+
+        inFlight = CompletableFuture.supplyAsync(() -> {
+            AngelOneSession renewed = tryRefresh && stale != null ? refresh(stale) : null;
+            if (renewed == null) {
+                renewed = login();
+            }
+            if (renewed == null) {
+                // Leave the old session in place if it still works; retry later with backoff
+                nextAttemptAt = System.currentTimeMillis() + backoffMillis;
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+                if (stale != null && !tryRefresh) {
+                    session.compareAndSet(stale, null);
+                }
+                return session.get();
+            }
+            backoffMillis = 5_000;
+            session.set(renewed);
+            return renewed;
+        }, runnable -> Thread.ofVirtual().name("angelone-session").start(runnable));
+        return inFlight;
+    }
+
+    private AngelOneSession login() {
+        try {
+            log.info("Logging in to AngelOne SmartAPI");
+            AngelOneSession net = networkDetails();
+
+            // Generate TOTP code for two-factor authentication
+            String totp = String.format("%06d", new GoogleAuthenticator().getTotpPassword(totpSecret));
+
+            Map<String, String> requestBody = new HashMap<>();
+            requestBody.put("clientcode", clientId);
+            requestBody.put("password", clientPassword);
+            requestBody.put("totp", totp);
+
+            AngelOneSession session = exchangeTokens(LOGIN_PATH, requestBody, headers(net, null), net);
+            if (session != null) {
+                log.info("AngelOne login succeeded; session valid until {}", java.time.Instant.ofEpochMilli(session.getExpiresAt()));
+            }
+            return session;
+        } catch (Exception e) {
+            log.error("AngelOne login failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private AngelOneSession refresh(AngelOneSession stale) {
+        try {
+            AngelOneSession renewed = exchangeTokens(REFRESH_PATH,
+                    Map.of("refreshToken", stale.getRefreshToken()),
+                    headers(stale, stale.getJwtToken()), stale);
+            if (renewed != null) {
+                log.info("AngelOne session refreshed");
+            }
+            return renewed;
+        } catch (Exception e) {
+            log.warn("AngelOne token refresh failed, falling back to login: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private AngelOneSession exchangeTokens(String path, Map<String, String> body, HttpHeaders headers,
+                                           AngelOneSession net) throws Exception {
+        ResponseEntity<String> response = restTemplate.exchange(BASE_URL + path, HttpMethod.POST,
+                new HttpEntity<>(body, headers), String.class);
+        JsonNode root = objectMapper.readTree(response.getBody());
+        if (!root.path("status").asBoolean(false)) {
+            log.warn("AngelOne rejected {}: {}", path, root.path("message").asText());
+            return null;
+        }
+
+        JsonNode data = root.path("data");
+        String jwt = data.path("jwtToken").asText();
+        long now = System.currentTimeMillis();
+        return AngelOneSession.builder()
+                .jwtToken(jwt)
+                .refreshToken(data.path("refreshToken").asText())
+                .feedToken(data.path("feedToken").asText(net.getFeedToken()))
+                .issuedAt(now)
+                .expiresAt(jwtExpiry(jwt, now))
+                .clientLocalIp(net.getClientLocalIp())
+                .clientPublicIp(net.getClientPublicIp())
+                .macAddress(net.getMacAddress())
+                .build();
+    }
+
+    // Headers for the auth endpoints; secure endpoints get theirs from MarketDataService
+    HttpHeaders headers(AngelOneSession net, String jwt) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Accept", "application/json");
+        headers.set("X-UserType", "USER");
+        headers.set("X-SourceID", "WEB");
+        headers.set("X-ClientLocalIP", net.getClientLocalIp());
+        headers.set("X-ClientPublicIP", net.getClientPublicIp());
+        headers.set("X-MACAddress", net.getMacAddress());
+        headers.set("X-PrivateKey", apiKey);
+        if (jwt != null) {
+            headers.set("Authorization", "Bearer " + jwt);
+        }
+        return headers;
+    }
+
+    // The "exp" claim of the JWT, or a conservative default if it cannot be read
+    private long jwtExpiry(String jwt, long issuedAt) {
+        try {
+            String payload = jwt.split("\\.")[1];
+            JsonNode claims = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8));
+            if (claims.hasNonNull("exp")) {
+                return claims.get("exp").asLong() * 1000;
+            }
+        } catch (Exception e) {
+            log.debug("Could not read AngelOne JWT expiry: {}", e.getMessage());
+        }
+        return issuedAt + DEFAULT_VALIDITY_MILLIS;
+    }
+
+    private AngelOneSession networkDetails() {
+        AngelOneSession net = network;
+        if (net == null) {
+            net = AngelOneSession.builder()
+                    .clientLocalIp(getLocalIPAddress())
+                    .clientPublicIp(configuredPublicIp.isBlank() ? getPublicIPAddress() : configuredPublicIp)
+                    .macAddress(getMacAddress())
+                    .build();
+            log.info("AngelOne client network: local {}, public {}, MAC {}",
+                    net.getClientLocalIp(), net.getClientPublicIp(), net.getMacAddress());
+            network = net;
+        }
+        return net;
+    }
+
+    // Auto-detect local IP address of the machine
+    private String getLocalIPAddress() {
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (Exception e) {
+            log.warn("Could not detect local IP, using default");
+            return "192.168.1.1";
+        }
+    }
+
+    // Public IP as seen by ipify, bounded so a slow lookup cannot hold up login
+    private String getPublicIPAddress() {
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("https://api.ipify.org"))
+                    .timeout(Duration.ofSeconds(3))
+                    .build();
+            return client.send(request, HttpResponse.BodyHandlers.ofString()).body().trim();
+        } catch (Exception e) {
+            log.warn("Could not detect public IP, using default");
+            return "106.51.68.11";
+        }
+    }
+
+    // Auto-detect MAC address of the network interface
+    private String getMacAddress() {
+        try {
+            NetworkInterface ni = NetworkInterface.getByInetAddress(InetAddress.getLocalHost());
+
+            // Check if network interface exists
+            if (ni == null || ni.getHardwareAddress() == null) {
+                throw new Exception("Hardware address not found");
+            }
+
+            // Convert byte array to MAC address string format
+            byte[] hardwareAddress = ni.getHardwareAddress();
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < hardwareAddress.length; i++) {
+                sb.append(String.format("%02X%s", hardwareAddress[i],
+                        (i < hardwareAddress.length - 1) ? ":" : ""));
+            }
+            return sb.toString().toLowerCase();
+        } catch (Exception e) {
+            log.warn("Could not detect MAC address, using default");
+            return "fe:80:ab:cd:ef:gh";
+        }
+    }
+}
@@ -13,11 +13,13 @@ public class AuthService {
     // Inject User Repository that we made
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserIdentityService userIdentityService;
 
     @Autowired
-    public AuthService(UserRepository userRepository)
+    public AuthService(UserRepository userRepository, UserIdentityService userIdentityService)
     {
         this.userRepository = userRepository;
+        this.userIdentityService = userIdentityService;
         this.passwordEncoder = new BCryptPasswordEncoder();
     }
 
@@ -47,6 +49,7 @@ public class AuthService {
         if (!passwordEncoder.matches(password, user.getPassword())) {
             throw new RuntimeException("Inavalid password");//    (Security Best Practice: Don't tell the attacker *which* part was wrong)
         }
+        userIdentityService.remember(user.getEmail(), user.getId());
         return user;
     }
 }
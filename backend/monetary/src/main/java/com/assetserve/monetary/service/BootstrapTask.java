@@ -0,0 +1,13 @@
+package com.assetserve.monetary.service;
+
+/**
+ * Startup work that does not have to finish before the web server starts, such as loading
+ * reference data. {@link StartupBootstrap} runs all tasks concurrently once the context is up and
+ * reports the instance ready only after every task has completed.
+ */
+public interface BootstrapTask {
+
+    String getBootstrapName();
+
+    void bootstrap() throws Exception;
+}
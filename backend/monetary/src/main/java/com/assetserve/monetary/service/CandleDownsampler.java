@@ -0,0 +1,77 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleSeries;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of a candle series for charting.
+ * The first and last candles are kept; the rest are split into maxPoints - 2 equal buckets and
+ * from each the candle whose close forms the largest triangle with the previously kept candle and
+ * the average of the next bucket is kept. Spikes and turns of the close line survive while flat
+ * stretches collapse. Kept candles are returned unchanged, so the JSON shape is the same.
+ */
+public final class CandleDownsampler {
+
+    public static final int MIN_POINTS = 3;
+
+    private CandleDownsampler() {
+    }
+
+    // Source must be ascending; returned as is when it already fits
+    public static CandleSeries lttb(CandleSeries source, int maxPoints) {
+        if (maxPoints < MIN_POINTS) {
+            throw new IllegalArgumentException("maxPoints must be at least " + MIN_POINTS);
+        }
+        int size = source.size();
+        if (size <= maxPoints) {
+            return source;
+        }
+
+        ArrayCandleSeries result = new ArrayCandleSeries(maxPoints);
+        result.add(source, 0);
+
+        // Buckets cover indices 1 .. size - 2
+        double bucketWidth = (double) (size - 2) / (maxPoints - 2);
+        int kept = 0;
+
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            int from = (int) (bucket * bucketWidth) + 1;
+            int to = (int) ((bucket + 1) * bucketWidth) + 1;
+
+            // Average point of the next bucket; the last candle for the final bucket
+            int nextFrom = to;
+            int nextTo = Math.min((int) ((bucket + 2) * bucketWidth) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextFrom; i < nextTo; i++) {
+                avgX += source.getTimestamp(i);
+                avgY += source.getClose(i);
+            }
+            int nextCount = nextTo - nextFrom;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            // Timestamps are taken relative to the kept candle to keep the doubles small
+            long originX = source.getTimestamp(kept);
+            double originY = source.getClose(kept);
+            double dx = avgX - originX;
+            double dy = avgY - originY;
+
+            int chosen = from;
+            double largestArea = -1;
+            for (int i = from; i < to; i++) {
+                double area = Math.abs(dx * (source.getClose(i) - originY)
+                        - (source.getTimestamp(i) - originX) * dy);
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = i;
+                }
+            }
+            result.add(source, chosen);
+            kept = chosen;
+        }
+
+        result.add(source, size - 1);
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleTimestamps;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+
+/**
+ * Streaming parser for getCandleData responses:
+ * {"status":true,"message":"SUCCESS","data":[["2024-01-05T09:15:00+05:30",o,h,l,c,v],...]}.
+ * Candles go straight from the token stream into primitive columns; no JSON tree and
+ * no per-candle objects are built.
+ */
+@Component
+@Slf4j
+public class CandleParser {
+
+    private final JsonFactory jsonFactory;
+
+    public CandleParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // Parsed candles, or null when AngelOne reports an error (so callers never cache a failed range as empty)
+    public ArrayCandleSeries parse(InputStream body) throws IOException {
+        ArrayCandleSeries series = new ArrayCandleSeries();
+        if (body == null) {
+            return series;
+        }
+
+        boolean status = false;
+        String message = null;
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.warn("Angel One candle response is not a JSON object");
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("status".equals(field)) {
+                    status = value == JsonToken.VALUE_TRUE;
+                } else if ("message".equals(field)) {
+                    message = parser.getValueAsString();
+                } else if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                    readCandles(parser, series);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (!status) {
+            log.warn("Angel one API returned error status for candle data: {}", message);
+            return null;
+        }
+        return series;
+    }
+
+    // Each candle is an array: [timestamp, open, high, low, close, volume]. A candle with a
+    // missing, null or unparsable field is dropped on its own; the rest of the series still loads.
+    private void readCandles(JsonParser parser, ArrayCandleSeries series) throws IOException {
+        double[] prices = new double[4];
+        int skipped = 0;
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            long timestamp = 0;
+            boolean valid = parser.nextToken() == JsonToken.VALUE_STRING;
+            if (valid) {
+                try {
+                    timestamp = CandleTimestamps.parse(
+                            parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    valid = false;
+                }
+            }
+            for (int i = 0; valid && i < prices.length; i++) {
+                valid = parser.nextToken().isNumeric();
+                prices[i] = valid ? parser.getDoubleValue() : 0;
+            }
+            valid = valid && parser.nextToken().isNumeric();
+            long volume = valid ? parser.getValueAsLong() : 0;
+
+            // Skip anything beyond the six known columns (or the rest of a dropped candle)
+            while (parser.currentToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+                parser.nextToken();
+            }
+            if (valid) {
+                series.add(timestamp, prices[0], prices[1], prices[2], prices[3], volume);
+            } else {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} malformed candles in Angel One candle response", skipped);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleInterval;
+import com.assetserve.monetary.dto.CandleSeries;
+
+/**
+ * Aggregates candles into a coarser interval in one pass over the columns.
+ * Intraday buckets are aligned to the NSE session open (09:15 IST), matching what AngelOne
+ * returns for the same interval; daily buckets start at midnight IST like AngelOne's daily candles.
+ */
+public final class CandleResampler {
+
+    // IST has no daylight saving, so a fixed offset is exact
+    private static final long IST_OFFSET_MILLIS = 19_800_000L;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long SESSION_OPEN_MILLIS = (9 * 60 + 15) * 60_000L;
+
+    private CandleResampler() {
+    }
+
+    // True if candles of base can be combined into whole target candles
+    public static boolean canDerive(CandleInterval target, CandleInterval base) {
+        if (base.getMillis() >= target.getMillis()) {
+            return false;
+        }
+        return target == CandleInterval.ONE_DAY || target.getMillis() % base.getMillis() == 0;
+    }
+
+    // Start of the target candle that contains epochMillis
+    public static long bucketStart(long epochMillis, CandleInterval target) {
+        long dayStart = Math.floorDiv(epochMillis + IST_OFFSET_MILLIS, DAY_MILLIS) * DAY_MILLIS - IST_OFFSET_MILLIS;
+        if (target == CandleInterval.ONE_DAY) {
+            return dayStart;
+        }
+        long sessionOpen = dayStart + SESSION_OPEN_MILLIS;
+        return sessionOpen + Math.floorDiv(epochMillis - sessionOpen, target.getMillis()) * target.getMillis();
+    }
+
+    // Source must be ascending; first open, max high, min low, last close, summed volume per bucket
+    public static ArrayCandleSeries resample(CandleSeries source, CandleInterval target) {
+        ArrayCandleSeries result = new ArrayCandleSeries(Math.max(1, source.size() / 4));
+        if (source.size() == 0) {
+            return result;
+        }
+
+        long bucket = bucketStart(source.getTimestamp(0), target);
+        double open = source.getOpen(0);
+        double high = source.getHigh(0);
+        double low = source.getLow(0);
+        double close = source.getClose(0);
+        long volume = source.getVolume(0);
+
+        for (int i = 1; i < source.size(); i++) {
+            long next = bucketStart(source.getTimestamp(i), target);
+            if (next != bucket) {
+                result.add(bucket, open, high, low, close, volume);
+                bucket = next;
+                open = source.getOpen(i);
+                high = source.getHigh(i);
+                low = source.getLow(i);
+                volume = 0;
+            } else {
+                high = Math.max(high, source.getHigh(i));
+                low = Math.min(low, source.getLow(i));
+            }
+            close = source.getClose(i);
+            volume += source.getVolume(i);
+        }
+        result.add(bucket, open, high, low, close, volume);
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.CandleKey;
+import com.assetserve.monetary.dto.CandleSeries;
+
+import java.util.List;
+
+/**
+ * Local store of closed candles plus a record of which time ranges it fully covers.
+ * Implementations must be safe for concurrent readers and writers.
+ */
+public interface CandleStore {
+
+    // Candles with fromMillis <= timestamp <= toMillis, ascending
+    CandleSeries read(CandleKey key, long fromMillis, long toMillis);
+
+    // Merge candles (newer values win on equal timestamps) and mark [fromMillis, toMillis] as covered
+    void write(CandleKey key, CandleSeries candles, long fromMillis, long toMillis);
+
+    // Sub-ranges of [fromMillis, toMillis] the store does not cover yet
+    List<long[]> findGaps(CandleKey key, long fromMillis, long toMillis);
+}
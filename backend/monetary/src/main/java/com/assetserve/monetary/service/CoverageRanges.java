@@ -0,0 +1,73 @@
+package com.assetserve.monetary.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of closed time ranges [start, end] (epoch millis) that a candle store already holds.
+ * Overlapping or touching ranges are merged on insert. Not thread-safe.
+ */
+public class CoverageRanges {
+
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+    public void add(long start, long end) {
+        if (end < start) {
+            return;
+        }
+
+        // Absorb a range starting at or before us that reaches our start
+        Map.Entry<Long, Long> floor = ranges.floorEntry(start);
+        if (floor != null && floor.getValue() >= start - 1) {
+            start = floor.getKey();
+            end = Math.max(end, floor.getValue());
+        }
+
+        // Absorb every range starting inside (or right after) [start, end]
+        Map.Entry<Long, Long> next = ranges.ceilingEntry(start);
+        while (next != null && next.getKey() <= end + 1) {
+            end = Math.max(end, next.getValue());
+            ranges.remove(next.getKey());
+            next = ranges.ceilingEntry(start);
+        }
+        ranges.put(start, end);
+    }
+
+    // Sub-ranges of [start, end] that are not covered, in ascending order
+    public List<long[]> gaps(long start, long end) {
+        List<long[]> gaps = new ArrayList<>();
+        long cursor = start;
+
+        Map.Entry<Long, Long> floor = ranges.floorEntry(start);
+        if (floor != null && floor.getValue() >= cursor) {
+            cursor = floor.getValue() + 1;
+        }
+
+        for (Map.Entry<Long, Long> range : ranges.subMap(start, false, end, true).entrySet()) {
+            if (cursor > end) {
+                break;
+            }
+            if (range.getKey() > cursor) {
+                gaps.add(new long[]{cursor, range.getKey() - 1});
+            }
+            cursor = Math.max(cursor, range.getValue() + 1);
+        }
+
+        if (cursor <= end) {
+            gaps.add(new long[]{cursor, end});
+        }
+        return gaps;
+    }
+
+    public List<long[]> toList() {
+        List<long[]> list = new ArrayList<>(ranges.size());
+        ranges.forEach((start, end) -> list.add(new long[]{start, end}));
+        return list;
+    }
+
+    public int size() {
+        return ranges.size();
+    }
+}
@@ -0,0 +1,45 @@
+package com.assetserve.monetary.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money and quantities as {@code long} counts of 1/10000, the same scale as the
+ * {@code precision = 19, scale = 4} columns on {@link com.assetserve.monetary.model.Asset}.
+ * Valuation runs on these primitives and converts to {@link BigDecimal} only at the JSON and
+ * database boundary. Results round half-up to 4 decimals, as a scale-4 column would.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 4;
+    public static final long ONE = 10_000L;
+
+    private FixedPoint() {
+    }
+
+    public static long of(BigDecimal value) {
+        return value == null ? 0L : value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Prices arrive as doubles from the quote API and the live feed
+    public static long of(double value) {
+        return Double.isFinite(value) ? Math.round(value * ONE) : 0L;
+    }
+
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    // a x b, both in units; the 128-bit product only falls back to BigDecimal when it cannot fit a long
+    public static long multiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            long half = ONE / 2;
+            return low >= 0 ? (low + half) / ONE : (low - half) / ONE;
+        }
+        return BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b))
+                .divide(BigDecimal.valueOf(ONE), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+}
@@ -0,0 +1,191 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleInterval;
+import com.assetserve.monetary.dto.CandleKey;
+import com.assetserve.monetary.dto.CandleSeries;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Price history backed by the local {@link CandleStore}. Closed candles never change, so each
+ * range is fetched from AngelOne once: requests only go upstream for the gaps the store does
+ * not cover yet, plus the still-forming tail which is never cached. Before going upstream, gaps in
+ * an intraday interval are derived from a finer series that is already cached for the instrument
+ * (coarsest first, e.g. FIFTEEN_MINUTE from FIVE_MINUTE before ONE_MINUTE), as far as it covers
+ * them in whole buckets. Finer series are never fetched just to derive from, and ONE_DAY is always
+ * taken from AngelOne so it keeps the exchange's official close.
+ */
+@Service
+@Slf4j
+public class HistoricalCandleService {
+
+    private static final ZoneId MARKET_ZONE = ZoneId.of("Asia/Kolkata");
+    private static final DateTimeFormatter REQUEST_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final long MINUTE_MILLIS = 60_000;
+
+    private final MarketDataService marketDataService;
+    private final CandleStore candleStore;
+
+    // One filler per key: concurrent requests for the same instrument wait and then read the filled range.
+    // A fixed set of lock stripes, since keys come from request parameters and must not grow a map
+    private static final int FILL_LOCK_STRIPES = 64;
+    private final ReentrantLock[] fillLocks = new ReentrantLock[FILL_LOCK_STRIPES];
+
+    public HistoricalCandleService(MarketDataService marketDataService, CandleStore candleStore) {
+        this.marketDataService = marketDataService;
+        this.candleStore = candleStore;
+        for (int i = 0; i < fillLocks.length; i++) {
+            fillLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public CandleSeries getCandles(String exchange, String symbolToken, String intervalName,
+                                   String fromDate, String toDate) {
+        CandleInterval interval = CandleInterval.fromName(intervalName);
+        CandleKey key = new CandleKey(exchange, symbolToken, interval);
+
+        long from = parse(fromDate);
+        long to = parse(toDate);
+        if (interval == CandleInterval.ONE_DAY) {
+            // Daily candles are stamped at midnight IST
+            from = Instant.ofEpochMilli(from).atZone(MARKET_ZONE).toLocalDate()
+                    .atStartOfDay(MARKET_ZONE).toInstant().toEpochMilli();
+        }
+        if (to < from) {
+            return new ArrayCandleSeries(1);
+        }
+
+        // Only candles that have closed and settled are cacheable
+        long cacheEnd = Math.min(to, settledUntil(interval, System.currentTimeMillis()));
+
+        CandleSeries stored = new ArrayCandleSeries(1);
+        if (cacheEnd >= from) {
+            stored = readClosed(key, from, cacheEnd);
+        }
+
+        if (to <= cacheEnd) {
+            return stored;
+        }
+        CandleSeries tail = fetch(key, Math.max(from, cacheEnd + MINUTE_MILLIS), to);
+        return tail != null ? ArrayCandleSeries.merge(stored, tail) : stored;
+    }
+
+    // Closed candles from the store; gaps are derived from cached finer data where possible, the rest filled upstream
+    private CandleSeries readClosed(CandleKey key, long from, long to) {
+        List<long[]> gaps = candleStore.findGaps(key, from, to);
+        if (!gaps.isEmpty()) {
+            // Daily candles carry the exchange's official close, which minute data does not reproduce
+            if (key.getInterval() != CandleInterval.ONE_DAY) {
+                for (long[] gap : gaps) {
+                    derive(key, gap[0], gap[1]);
+                }
+            }
+            fillGaps(key, from, to);
+        }
+        return candleStore.read(key, from, to);
+    }
+
+    // Store the whole target buckets at the start of [from, to] that the coarsest usable finer
+    // series already covers; anything past its coverage is left for fillGaps
+    private void derive(CandleKey key, long from, long to) {
+        CandleInterval interval = key.getInterval();
+        long bucketFrom = CandleResampler.bucketStart(from, interval);
+        long bucketTo = CandleResampler.bucketStart(to, interval) + interval.getMillis() - 1;
+
+        CandleInterval[] bases = CandleInterval.values();
+        for (int i = bases.length - 1; i >= 0; i--) {
+            CandleInterval base = bases[i];
+            if (!CandleResampler.canDerive(interval, base)) {
+                continue;
+            }
+            CandleKey baseKey = new CandleKey(key.getExchange(), key.getSymbolToken(), base);
+            List<long[]> baseGaps = candleStore.findGaps(baseKey, bucketFrom, bucketTo);
+            long coveredTo = baseGaps.isEmpty() ? bucketTo : baseGaps.get(0)[0] - 1;
+            // End of the last bucket lying entirely inside the covered part
+            long derivedTo = CandleResampler.bucketStart(coveredTo + 1, interval) - 1;
+            if (derivedTo < bucketFrom) {
+                continue;
+            }
+
+            CandleSeries resampled = CandleResampler.resample(candleStore.read(baseKey, bucketFrom, derivedTo), interval);
+            candleStore.write(key, resampled, bucketFrom, derivedTo);
+            log.debug("Derived {} {}-{} from cached {}", key, bucketFrom, derivedTo, base);
+            return;
+        }
+    }
+
+    private void fillGaps(CandleKey key, long from, long to) {
+        if (candleStore.findGaps(key, from, to).isEmpty()) {
+            return;
+        }
+
+        ReentrantLock lock = fillLocks[Math.floorMod(key.hashCode(), FILL_LOCK_STRIPES)];
+        lock.lock();
+        try {
+            // Re-check: another request may have filled the range while we waited
+            List<long[]> gaps = candleStore.findGaps(key, from, to);
+            long maxSpan = key.getInterval().getMaxRequestMillis();
+            for (long[] gap : gaps) {
+                for (long start = gap[0]; start <= gap[1]; start += maxSpan) {
+                    long end = Math.min(gap[1], start + maxSpan - 1);
+                    CandleSeries candles = fetch(key, start, end);
+                    if (candles == null) {
+                        // Leave the range uncovered so the next request retries it
+                        log.warn("Could not fill candle gap for {} {}-{}", key, start, end);
+                        continue;
+                    }
+                    candleStore.write(key, candles, start, end);
+                }
+            }
+            log.debug("Filled {} candle gap(s) for {}", gaps.size(), key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CandleSeries fetch(CandleKey key, long from, long to) {
+        return marketDataService.fetchCandleData(key.getExchange(), key.getSymbolToken(),
+                key.getInterval().name(), format(from), format(to));
+    }
+
+    private static long parse(String date) {
+        try {
+            return LocalDateTime.parse(date.trim(), REQUEST_FORMAT).atZone(MARKET_ZONE).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Dates must be formatted as yyyy-MM-dd HH:mm: " + date);
+        }
+    }
+
+    private static String format(long epochMillis) {
+        return REQUEST_FORMAT.format(Instant.ofEpochMilli(epochMillis).atZone(MARKET_ZONE));
+    }
+
+    // Last candle start that may be marked covered. The broker can publish a bar late, and a range
+    // once covered is never fetched again, so intraday candles wait one extra interval after closing
+    // and daily candles until the previous trading day (weekends skipped) is over
+    static long settledUntil(CandleInterval interval, long now) {
+        if (interval == CandleInterval.ONE_DAY) {
+            LocalDate previous = Instant.ofEpochMilli(now).atZone(MARKET_ZONE).toLocalDate().minusDays(1);
+            while (previous.getDayOfWeek() == DayOfWeek.SATURDAY || previous.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                previous = previous.minusDays(1);
+            }
+            return previous.atStartOfDay(MARKET_ZONE).toInstant().toEpochMilli() - MINUTE_MILLIS;
+        }
+        return floorToMinute(now - 2 * interval.getMillis());
+    }
+
+    private static long floorToMinute(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, MINUTE_MILLIS);
+    }
+}
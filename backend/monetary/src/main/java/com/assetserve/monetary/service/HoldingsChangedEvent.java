@@ -0,0 +1,14 @@
+package com.assetserve.monetary.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a user's portfolio assets or watchlist entries change,
+ * so in-memory views of that user's holdings can be refreshed.
+ */
+@Getter
+@RequiredArgsConstructor
+public class HoldingsChangedEvent {
+    private final String userEmail;
+}
@@ -0,0 +1,116 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleKey;
+import com.assetserve.monetary.dto.CandleSeries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Heap-backed CandleStore: one sorted columnar series and its coverage per key (candles.store=memory).
+// Holds at most candles.memory.max-candles in total; the least recently used series go first.
+@Component
+@ConditionalOnProperty(name = "candles.store", havingValue = "memory")
+public class InMemoryCandleStore implements CandleStore {
+
+    private static final class Entry {
+        private ArrayCandleSeries candles = new ArrayCandleSeries(1);
+        private final CoverageRanges coverage = new CoverageRanges();
+        private volatile long lastAccess = System.nanoTime();
+        private boolean evicted;
+    }
+
+    private final ConcurrentHashMap<CandleKey, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalCandles = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final long maxCandles;
+
+    public InMemoryCandleStore(@Value("${candles.memory.max-candles:2000000}") long maxCandles) {
+        this.maxCandles = maxCandles;
+    }
+
+    @Override
+    public CandleSeries read(CandleKey key, long fromMillis, long toMillis) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return new ArrayCandleSeries(1);
+        }
+        entry.lastAccess = System.nanoTime();
+        synchronized (entry) {
+            return ArrayCandleSeries.slice(entry.candles, fromMillis, toMillis);
+        }
+    }
+
+    @Override
+    public void write(CandleKey key, CandleSeries candles, long fromMillis, long toMillis) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+            synchronized (entry) {
+                if (entry.evicted) {
+                    // Lost a race with eviction; start a fresh entry
+                    continue;
+                }
+                if (candles.size() > 0) {
+                    int before = entry.candles.size();
+                    entry.candles = ArrayCandleSeries.merge(entry.candles, candles);
+                    totalCandles.addAndGet(entry.candles.size() - before);
+                }
+                entry.coverage.add(fromMillis, toMillis);
+                entry.lastAccess = System.nanoTime();
+            }
+            break;
+        }
+        evictIfNeeded(key);
+    }
+
+    @Override
+    public List<long[]> findGaps(CandleKey key, long fromMillis, long toMillis) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return List.of(new long[]{fromMillis, toMillis});
+        }
+        entry.lastAccess = System.nanoTime();
+        synchronized (entry) {
+            return entry.coverage.gaps(fromMillis, toMillis);
+        }
+    }
+
+    public long size() {
+        return totalCandles.get();
+    }
+
+    // Drop least recently used series, never the one just written, until back under the bound.
+    // Coverage goes with the candles, so an evicted range is simply fetched again.
+    private void evictIfNeeded(CandleKey justWritten) {
+        if (totalCandles.get() <= maxCandles || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Map.Entry<CandleKey, Entry>> oldest = new ArrayList<>(entries.entrySet());
+            oldest.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            for (Map.Entry<CandleKey, Entry> victim : oldest) {
+                if (totalCandles.get() <= maxCandles) {
+                    break;
+                }
+                if (victim.getKey().equals(justWritten) || !entries.remove(victim.getKey(), victim.getValue())) {
+                    continue;
+                }
+                Entry entry = victim.getValue();
+                synchronized (entry) {
+                    entry.evicted = true;
+                    totalCandles.addAndGet(-entry.candles.size());
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
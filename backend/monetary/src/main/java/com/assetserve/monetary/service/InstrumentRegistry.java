@@ -0,0 +1,251 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.Instrument;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory registry of the AngelOne instrument master, loaded from a local copy of
+ * OpenAPIScripMaster.json. The copy is downloaded from {@code instruments.master-url} when it is
+ * missing or older than {@code instruments.master-max-age-ms}; a failed download keeps the old copy.
+ * The file is streamed object by object, so the ~100k-row master is never held as a JSON tree. Each load builds a complete new snapshot (lookup map plus search index)
+ * that replaces the old one atomically; readers never see a half-built registry.
+ */
+@Service
+@Slf4j
+public class InstrumentRegistry implements BootstrapTask {
+
+    // Everything a request needs, swapped as one unit
+    private record Snapshot(Map<String, Instrument> byKey,
+                            SymbolSearchIndex<Instrument> index,
+                            long fileModified) {
+    }
+
+    private static final DateTimeFormatter EXPIRY_FORMAT = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("ddMMMyyyy")
+            .toFormatter(Locale.ENGLISH);
+
+    private final JsonFactory jsonFactory;
+    private final Path masterFile;
+    private final String masterUrl;
+    private final long masterMaxAgeMillis;
+    private final Set<String> exchanges;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(
+            new Snapshot(Map.of(), SymbolSearchIndex.build(List.of(), i -> List.of()), -1));
+
+    public InstrumentRegistry(ObjectMapper objectMapper,
+                              @Value("${instruments.master-file:data/OpenAPIScripMaster.json}") String masterFile,
+                              @Value("${instruments.master-url:}") String masterUrl,
+                              @Value("${instruments.master-max-age-ms:43200000}") long masterMaxAgeMillis,
+                              @Value("${instruments.exchanges:NSE,BSE,NFO,MCX}") Set<String> exchanges) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.masterFile = Path.of(masterFile);
+        this.masterUrl = masterUrl;
+        this.masterMaxAgeMillis = masterMaxAgeMillis;
+        this.exchanges = Set.copyOf(exchanges);
+    }
+
+    @Override
+    public String getBootstrapName() {
+        return "instrumentMaster";
+    }
+
+    // First load runs on the startup bootstrap, in parallel with the other reference data
+    @Override
+    public void bootstrap() {
+        reload();
+    }
+
+    // AngelOne publishes a new master every morning; fetch it once our copy is too old, and
+    // pick it up once the file on disk changes
+    @Scheduled(cron = "${instruments.reload-cron:0 */15 * * * *}", zone = "Asia/Kolkata")
+    public void reload() {
+        try {
+            downloadIfStale();
+            if (!Files.exists(masterFile)) {
+                log.warn("Instrument master {} not found; search will return no results", masterFile.toAbsolutePath());
+                return;
+            }
+            long modified = Files.getLastModifiedTime(masterFile).toMillis();
+            if (modified == snapshot.get().fileModified()) {
+                return;
+            }
+
+            long started = System.nanoTime();
+            List<Instrument> instruments;
+            try (InputStream in = Files.newInputStream(masterFile)) {
+                instruments = parse(in);
+            }
+
+            // Ties in search ranking go to earlier entries: cash instruments first, then nearest expiry
+            instruments.sort(Comparator.comparing((Instrument i) -> i.getExpiry() != null)
+                    .thenComparing(Instrument::getExpiry, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+            Map<String, Instrument> byKey = new HashMap<>(instruments.size() * 2);
+            for (Instrument instrument : instruments) {
+                byKey.put(PriceCache.key(instrument.getExchange(), instrument.getToken()), instrument);
+            }
+            SymbolSearchIndex<Instrument> index = SymbolSearchIndex.build(instruments,
+                    i -> List.of(i.getSymbol(), i.getName()));
+
+            snapshot.set(new Snapshot(Map.copyOf(byKey), index, modified));
+            log.info("Loaded {} instruments from {} in {} ms", instruments.size(), masterFile,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            log.error("Could not load instrument master {}: {}", masterFile, e.getMessage());
+        }
+    }
+
+    // Written to a temp file first, so a failed or partial download never replaces a good copy
+    private void downloadIfStale() {
+        if (masterUrl.isBlank()) {
+            return;
+        }
+        try {
+            if (Files.exists(masterFile) && System.currentTimeMillis()
+                    - Files.getLastModifiedTime(masterFile).toMillis() < masterMaxAgeMillis) {
+                return;
+            }
+            Path parent = masterFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "instruments", ".download");
+            try {
+                HttpClient client = HttpClient.newBuilder()
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .followRedirects(HttpClient.Redirect.NORMAL)
+                        .build();
+                HttpResponse<Path> response = client.send(HttpRequest.newBuilder(URI.create(masterUrl))
+                        .timeout(Duration.ofMinutes(2))
+                        .GET()
+                        .build(), HttpResponse.BodyHandlers.ofFile(temp));
+                if (response.statusCode() != 200) {
+                    throw new IOException("HTTP " + response.statusCode());
+                }
+                Files.move(temp, masterFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Downloaded instrument master from {} ({} bytes)", masterUrl, Files.size(masterFile));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Could not download instrument master from {}: {}", masterUrl, e.getMessage());
+        }
+    }
+
+    public Instrument get(String exchange, String token) {
+        return snapshot.get().byKey().get(PriceCache.key(exchange, token));
+    }
+
+    // Ranked matches, optionally restricted to one exchange
+    public List<Instrument> search(String query, String exchange, int limit) {
+        SymbolSearchIndex<Instrument> index = snapshot.get().index();
+        if (exchange == null || exchange.isBlank()) {
+            return index.search(query, limit);
+        }
+        // Over-fetch so filtering by exchange still fills the page in the common case
+        return index.search(query, limit * 4).stream()
+                .filter(i -> i.getExchange().equalsIgnoreCase(exchange))
+                .limit(limit)
+                .toList();
+    }
+
+    public int size() {
+        return snapshot.get().byKey().size();
+    }
+
+    // [{"token":"2885","symbol":"RELIANCE-EQ","name":"RELIANCE","expiry":"","strike":"-1.000000",
+    //   "lotsize":"1","instrumenttype":"","exch_seg":"NSE","tick_size":"5.000000"}, ...]
+    List<Instrument> parse(InputStream in) throws IOException {
+        List<Instrument> instruments = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Instrument master is not a JSON array");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Instrument instrument = readInstrument(parser);
+                if (instrument != null) {
+                    instruments.add(instrument);
+                }
+            }
+        }
+        return instruments;
+    }
+
+    private Instrument readInstrument(JsonParser parser) throws IOException {
+        Instrument.InstrumentBuilder builder = Instrument.builder();
+        String exchange = null;
+        String token = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            String value = parser.getValueAsString();
+            switch (field) {
+                case "exch_seg" -> exchange = value;
+                case "token" -> token = value;
+                case "symbol" -> builder.symbol(value);
+                case "name" -> builder.name(value);
+                case "instrumenttype" -> builder.instrumentType(value);
+                case "expiry" -> builder.expiry(parseExpiry(value));
+                // Strike and tick size are published in paise; non-options carry a strike of -1
+                case "strike" -> builder.strike(parseNumber(value) < 0 ? -1 : parseNumber(value) / 100);
+                case "tick_size" -> builder.tickSize(parseNumber(value) / 100);
+                case "lotsize" -> builder.lotSize((int) parseNumber(value));
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (exchange == null || token == null || !exchanges.contains(exchange)) {
+            return null;
+        }
+        return builder.exchange(exchange).token(token).build();
+    }
+
+    private static LocalDate parseExpiry(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value, EXPIRY_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static double parseNumber(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
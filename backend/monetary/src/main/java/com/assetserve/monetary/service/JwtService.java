@@ -1,30 +1,56 @@
 package com.assetserve.monetary.service;
 
+import com.assetserve.monetary.dto.JwtPrincipal;
 import com.assetserve.monetary.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.Function;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final UserDetailsService userDetailsService;
+    private final int verifiedCacheSize;
+
+    // token -> principal for tokens whose signature was already checked
+    private final Map<String, JwtPrincipal> verified = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public JwtService(@Value("${application.security.jwt.secret-key}") String secretKey,
+                      @Value("${application.security.jwt.verified-cache-size:10000}") int verifiedCacheSize,
+                      UserDetailsService userDetailsService) {
+        // Decode the secret and build the parser once rather than on every request
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.userDetailsService = userDetailsService;
+        this.verifiedCacheSize = verifiedCacheSize;
+    }
 
     public String generateToken(User user){
         // "Claims" are the pieces of information inside the token
         Map<String, Object> claims = new HashMap<String, Object>();
         claims.put("firstName", user.getFirstName());
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLES_CLAIM, user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
 
         return buildToken(claims, user.getEmail());
     }
@@ -37,45 +63,74 @@ public class JwtService {
                 .subject(subject) // The subject is the users unique ID(we use email)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSigningKey()) //Sign in with our Secret key
+                .signWith(signingKey) //Sign in with our Secret key
                 .compact();
     }
 
-    // Helper methods to read to token
-    // Token validation check to check if it valid or expired
-    public boolean isTokenValid(String token, UserDetails user){
-        final String email = extractEmail(token);
-        return (email.equals(user.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token){
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the token (signature and expiry) in a single parse and returns the principal it
+     * describes. Recently verified tokens are answered from memory until they expire.
+     *
+     * @throws JwtException when the token is malformed, tampered with or expired
+     */
+    public JwtPrincipal verify(String token){
+        JwtPrincipal cached = verified.get(token);
+        if (cached != null) {
+            if (cached.getExpiresAtMillis() > System.currentTimeMillis()) {
+                hits.increment();
+                return cached;
+            }
+            verified.remove(token);
+        }
+        misses.increment();
+
+        // parseSignedClaims also rejects expired tokens
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        JwtPrincipal principal = toPrincipal(claims);
+        remember(token, principal);
+        return principal;
     }
 
-    private Date extractExpiration(String token){
-        return extractClaim(token, Claims::getExpiration);
+    // Verified-token cache counters, same shape as PriceCache.stats()
+    public Map<String, Long> cacheStats(){
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("size", (long) verified.size());
+        return stats;
     }
 
     public String extractEmail(String token){
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getEmail();
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver){
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token){
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
+    private JwtPrincipal toPrincipal(Claims claims){
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+
+        // Tokens issued before uid/roles were added: resolve the user once, then cache the result
+        if (userId == null || roles == null) {
+            User user = (User) userDetailsService.loadUserByUsername(claims.getSubject());
+            return new JwtPrincipal(user.getId(), user.getEmail(),
+                    List.copyOf(user.getAuthorities()), claims.getExpiration().getTime());
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new JwtPrincipal(userId.longValue(), claims.getSubject(), authorities,
+                claims.getExpiration().getTime());
     }
 
-    private SecretKey getSigningKey(){
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Bounded: drop expired entries first, start over if live tokens alone exceed the limit
+    private void remember(String token, JwtPrincipal principal){
+        if (verified.size() >= verifiedCacheSize) {
+            long now = System.currentTimeMillis();
+            verified.values().removeIf(p -> p.getExpiresAtMillis() <= now);
+            if (verified.size() >= verifiedCacheSize) {
+                verified.clear();
+            }
+        }
+        verified.put(token, principal);
     }
 }
@@ -0,0 +1,95 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.MarketTick;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Latest tick per instrument as delivered by the SmartStream feed.
+ * REST paths read prices from here first and only go upstream when a tick is missing or stale.
+ * Readers register interest with {@link #track}; the stream client drains those requests
+ * and subscribes them on the socket.
+ */
+@Component
+@Slf4j
+public class LivePriceBook {
+
+    private final ConcurrentHashMap<String, MarketTick> ticks = new ConcurrentHashMap<>();
+    private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<MarketTick>> listeners = new CopyOnWriteArrayList<>();
+
+    private final long maxAgeMillis;
+    private final int maxTokens;
+
+    public LivePriceBook(@Value("${angelone.stream.max-age-ms:5000}") long maxAgeMillis,
+                         @Value("${angelone.stream.max-tokens:1000}") int maxTokens) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxTokens = maxTokens;
+    }
+
+    public void publish(MarketTick tick) {
+        String key = PriceCache.key(tick.getExchange(), tick.getToken());
+        ticks.put(key, tick);
+        for (Consumer<MarketTick> listener : listeners) {
+            try {
+                listener.accept(tick);
+            } catch (Exception e) {
+                log.warn("Price listener failed for {}", key, e);
+            }
+        }
+    }
+
+    // Latest tick if it is recent enough to be trusted, otherwise null
+    public MarketTick getTick(String exchange, String token) {
+        MarketTick tick = ticks.get(PriceCache.key(exchange, token));
+        if (tick == null || System.currentTimeMillis() - tick.getReceivedAt() > maxAgeMillis) {
+            return null;
+        }
+        return tick;
+    }
+
+    // Ask the stream client to subscribe this instrument (no-op if already subscribed)
+    public void track(String exchange, String token) {
+        if (!SmartStreamCodec.isSupportedExchange(exchange)) {
+            return;
+        }
+        String key = PriceCache.key(exchange, token);
+        if (!subscribed.contains(key) && subscribed.size() + pending.size() < maxTokens) {
+            pending.add(key);
+        }
+    }
+
+    // Keys waiting to be subscribed; they move to the subscribed set
+    public Set<String> drainPending() {
+        Set<String> drained = new HashSet<>();
+        for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+            String key = it.next();
+            it.remove();
+            if (subscribed.add(key)) {
+                drained.add(key);
+            }
+        }
+        return drained;
+    }
+
+    // Called when the socket drops so everything gets re-subscribed on reconnect
+    public void resetSubscriptions() {
+        pending.addAll(subscribed);
+        subscribed.clear();
+    }
+
+    public void addListener(Consumer<MarketTick> listener) {
+        listeners.add(listener);
+    }
+
+    public int size() {
+        return ticks.size();
+    }
+}
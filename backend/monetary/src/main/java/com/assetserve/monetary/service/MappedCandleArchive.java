@@ -0,0 +1,312 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleKey;
+import com.assetserve.monetary.dto.CandleSeries;
+import com.assetserve.monetary.dto.MappedCandleSeries;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * On-disk {@link CandleStore}: one memory-mapped file per exchange/interval/token under
+ * {@code candles.archive.dir}. Reads are zero-copy {@link MappedCandleSeries} views, so serving a
+ * range does not grow the heap, and reopening after a restart only maps the file and reads its header.
+ *
+ * <pre>
+ * header (4 KiB): magic, version, capacity, count, rangeCount, reserved, rangeCount x (start, end)
+ * columns:        timestamp[capacity] open[capacity] high[capacity] low[capacity] close[capacity] volume[capacity]
+ * </pre>
+ * Candles newer than the last stored one are appended in place; a backfill that lands inside the
+ * existing range (or outgrows the capacity) writes the merged series to the next generation file
+ * ({@code <token>.<n>.candles}) and switches to it. Nothing is renamed or unmapped, as readers may
+ * still hold views of the old generation and Windows refuses to move or delete a mapped file; old
+ * generations are deleted when possible and otherwise at the next start. Rows are forced to disk
+ * before the header that counts them, and a new generation only gets its magic with that header,
+ * so after a crash a file shows either its previous count or is skipped for the previous generation.
+ */
+@Component
+@ConditionalOnProperty(name = "candles.store", havingValue = "archive", matchIfMissing = true)
+@Slf4j
+public class MappedCandleArchive implements CandleStore {
+
+    private static final int MAGIC = 0x43414E44; // "CAND"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int RANGES_OFFSET = 24;
+    private static final int MAX_RANGES = (HEADER_SIZE - RANGES_OFFSET) / 16;
+    private static final int COLUMNS = 6;
+    private static final int MIN_CAPACITY = 256;
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final Pattern GENERATION_NAME = Pattern.compile("([A-Za-z0-9_-]+)(?:\\.(\\d+))?\\.candles");
+
+    // Immutable snapshot of a mapping; appends publish a new one with a larger count
+    private record Mapping(MappedByteBuffer buffer, int capacity, int count) {
+        MappedCandleSeries series() {
+            return new MappedCandleSeries(buffer, HEADER_SIZE, capacity, 0, count);
+        }
+    }
+
+    private static final class ArchiveFile {
+        private final Path directory;
+        private final String token;
+        private final CoverageRanges coverage = new CoverageRanges();
+        private volatile Mapping mapping;
+        // Generation of the file mapping points into; 0 is the unnumbered <token>.candles
+        private long generation = -1;
+
+        private ArchiveFile(Path directory, String token) {
+            this.directory = directory;
+            this.token = token;
+        }
+
+        private Path path(long generation) {
+            return directory.resolve(generation == 0 ? token + ".candles" : token + "." + generation + ".candles");
+        }
+
+        // Generations present on disk, newest first
+        private List<Long> generations() throws IOException {
+            if (!Files.isDirectory(directory)) {
+                return List.of();
+            }
+            List<Long> generations = new ArrayList<>();
+            try (Stream<Path> paths = Files.list(directory)) {
+                paths.forEach(candidate -> {
+                    Matcher matcher = GENERATION_NAME.matcher(candidate.getFileName().toString());
+                    if (matcher.matches() && matcher.group(1).equals(token)) {
+                        generations.add(matcher.group(2) == null ? 0L : Long.parseLong(matcher.group(2)));
+                    }
+                });
+            }
+            generations.sort(Comparator.reverseOrder());
+            return generations;
+        }
+    }
+
+    private final Path root;
+    private final ConcurrentHashMap<CandleKey, ArchiveFile> files = new ConcurrentHashMap<>();
+
+    public MappedCandleArchive(@Value("${candles.archive.dir:data/candles}") String directory) throws IOException {
+        this.root = Path.of(directory);
+        Files.createDirectories(root);
+        log.info("Candle archive at {}", root.toAbsolutePath());
+    }
+
+    @Override
+    public CandleSeries read(CandleKey key, long fromMillis, long toMillis) {
+        Mapping mapping = file(key).mapping;
+        if (mapping == null) {
+            return new ArrayCandleSeries(1);
+        }
+        MappedCandleSeries all = mapping.series();
+        int from = all.indexAtOrAfter(fromMillis);
+        int to = toMillis == Long.MAX_VALUE ? all.size() : all.indexAtOrAfter(toMillis + 1);
+        return all.slice(from, to);
+    }
+
+    @Override
+    public void write(CandleKey key, CandleSeries candles, long fromMillis, long toMillis) {
+        ArchiveFile file = file(key);
+        synchronized (file) {
+            try {
+                Mapping mapping = file.mapping;
+                long generation = file.generation;
+                if (candles.size() > 0) {
+                    if (mapping != null && canAppend(mapping, candles)) {
+                        mapping = append(mapping, candles);
+                    } else {
+                        CandleSeries merged = mapping == null
+                                ? candles
+                                : ArrayCandleSeries.merge(mapping.series(), candles);
+                        generation = file.generation + 1;
+                        mapping = rewrite(file.path(generation), merged);
+                    }
+                } else if (mapping == null) {
+                    generation = file.generation + 1;
+                    mapping = rewrite(file.path(generation), new ArrayCandleSeries(1));
+                }
+
+                file.coverage.add(fromMillis, toMillis);
+                writeHeader(mapping, file.coverage);
+                file.mapping = mapping;
+                if (generation != file.generation) {
+                    long retired = file.generation;
+                    file.generation = generation;
+                    if (retired >= 0) {
+                        deleteQuietly(file.path(retired));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write candle archive for " + key, e);
+            }
+        }
+    }
+
+    @Override
+    public List<long[]> findGaps(CandleKey key, long fromMillis, long toMillis) {
+        ArchiveFile file = file(key);
+        synchronized (file) {
+            return file.coverage.gaps(fromMillis, toMillis);
+        }
+    }
+
+    // Open (or lazily create the handle for) the archive of this key: the newest readable
+    // generation wins, and every other generation left behind is deleted
+    private ArchiveFile file(CandleKey key) {
+        return files.computeIfAbsent(key, k -> {
+            if (!SAFE_NAME.matcher(k.getExchange()).matches() || !SAFE_NAME.matcher(k.getSymbolToken()).matches()) {
+                throw new IllegalArgumentException("Invalid exchange or symbol token: " + k);
+            }
+            ArchiveFile file = new ArchiveFile(root.resolve(k.getExchange()).resolve(k.getInterval().name()),
+                    k.getSymbolToken());
+            List<Long> generations;
+            try {
+                generations = file.generations();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not list candle archives in " + file.directory, e);
+            }
+
+            for (long generation : generations) {
+                if (file.mapping == null) {
+                    try {
+                        file.mapping = open(file.path(generation), file.coverage);
+                        file.generation = generation;
+                        continue;
+                    } catch (IOException | IllegalStateException e) {
+                        // A damaged or half-written file only costs a refetch
+                        log.warn("Ignoring unreadable candle archive {}: {}", file.path(generation), e.getMessage());
+                    }
+                }
+                deleteQuietly(file.path(generation));
+            }
+            if (file.mapping == null && !generations.isEmpty()) {
+                file.generation = generations.get(0);
+            }
+            return file;
+        });
+    }
+
+    // Best effort: Windows keeps a file that is still mapped; it goes at the next start instead
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete old candle archive {} yet: {}", path, e.getMessage());
+        }
+    }
+
+    private boolean canAppend(Mapping mapping, CandleSeries candles) {
+        if (mapping.count() + candles.size() > mapping.capacity()) {
+            return false;
+        }
+        return mapping.count() == 0
+                || candles.getTimestamp(0) > mapping.buffer().getLong(HEADER_SIZE + (mapping.count() - 1) * Long.BYTES);
+    }
+
+    // Rows go past the current count and are forced before writeHeader publishes the new count
+    private Mapping append(Mapping mapping, CandleSeries candles) {
+        writeColumns(mapping.buffer(), mapping.capacity(), mapping.count(), candles);
+        mapping.buffer().force();
+        return new Mapping(mapping.buffer(), mapping.capacity(), mapping.count() + candles.size());
+    }
+
+    // Write the series into a new generation file with room to grow; it has no magic (and so is
+    // not a valid archive) until writeHeader runs after the rows have been forced
+    private Mapping rewrite(Path path, CandleSeries candles) throws IOException {
+        int capacity = MIN_CAPACITY;
+        while (capacity < candles.size() * 2) {
+            capacity *= 2;
+        }
+
+        Files.createDirectories(path.getParent());
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * COLUMNS * Long.BYTES);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        writeColumns(buffer, capacity, 0, candles);
+        buffer.force();
+        return new Mapping(buffer, capacity, candles.size());
+    }
+
+    private Mapping open(Path path, CoverageRanges coverage) throws IOException {
+        MappedByteBuffer buffer;
+        long fileSize;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IllegalStateException("file too short");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        int capacity = buffer.getInt(8);
+        int count = buffer.getInt(12);
+        int rangeCount = buffer.getInt(16);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("not a version " + VERSION + " candle archive");
+        }
+        if (capacity <= 0 || count < 0 || count > capacity || rangeCount < 0 || rangeCount > MAX_RANGES
+                || fileSize < HEADER_SIZE + (long) capacity * COLUMNS * Long.BYTES) {
+            throw new IllegalStateException("corrupt header");
+        }
+
+        for (int i = 0; i < rangeCount; i++) {
+            int offset = RANGES_OFFSET + i * 16;
+            coverage.add(buffer.getLong(offset), buffer.getLong(offset + 8));
+        }
+        return new Mapping(buffer, capacity, count);
+    }
+
+    private static void writeColumns(MappedByteBuffer buffer, int capacity, int at, CandleSeries candles) {
+        for (int i = 0; i < candles.size(); i++) {
+            int slot = HEADER_SIZE + (at + i) * Long.BYTES;
+            int column = capacity * Long.BYTES;
+            buffer.putLong(slot, candles.getTimestamp(i));
+            buffer.putDouble(slot + column, candles.getOpen(i));
+            buffer.putDouble(slot + 2 * column, candles.getHigh(i));
+            buffer.putDouble(slot + 3 * column, candles.getLow(i));
+            buffer.putDouble(slot + 4 * column, candles.getClose(i));
+            buffer.putLong(slot + 5 * column, candles.getVolume(i));
+        }
+    }
+
+    // Second of the two forces: the rows are already on disk, so the count (and coverage) written
+    // here never describes rows a crash could have lost
+    private static void writeHeader(Mapping mapping, CoverageRanges coverage) {
+        MappedByteBuffer buffer = mapping.buffer();
+        List<long[]> ranges = coverage.toList();
+        // Keep the most recent ranges if there are too many; dropped ones are simply refetched
+        List<long[]> persisted = ranges.subList(Math.max(0, ranges.size() - MAX_RANGES), ranges.size());
+        for (int i = 0; i < persisted.size(); i++) {
+            int offset = RANGES_OFFSET + i * 16;
+            buffer.putLong(offset, persisted.get(i)[0]);
+            buffer.putLong(offset + 8, persisted.get(i)[1]);
+        }
+        buffer.putInt(8, mapping.capacity());
+        buffer.putInt(16, persisted.size());
+        buffer.putInt(12, mapping.count());
+        buffer.putInt(4, VERSION);
+        buffer.putInt(0, MAGIC);
+        buffer.force(0, HEADER_SIZE);
+    }
+}
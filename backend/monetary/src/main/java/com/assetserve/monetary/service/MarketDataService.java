@@ -1,42 +1,61 @@
 package com.assetserve.monetary.service;
 
+import com.assetserve.monetary.dto.AngelOneSession;
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleSeries;
 import com.assetserve.monetary.dto.HoldingResponse;
 import com.assetserve.monetary.dto.IndexQuote;
+import com.assetserve.monetary.dto.MarketTick;
 import com.assetserve.monetary.dto.MarketTrend;
 import com.assetserve.monetary.dto.OIResponse;
-import com.assetserve.monetary.dto.ScripPriceData;
+import com.assetserve.monetary.exception.UpstreamThrottledException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.warrenstrange.googleauth.GoogleAuthenticator;
-import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.*;
 
 @Service
+@Slf4j
 public class MarketDataService {
     // Base URL for AngelOne SmartAPI
     private static final String BASE_URL = "https://apiconnect.angelone.in";
 
+    private static final String INDEX_EXCHANGE = "NSE";
+
     private static final Map<String, String> INDEX_TOKENS;
+    // Reverse of INDEX_TOKENS: token -> display name
+    private static final Map<String, String> INDEX_NAMES;
 
     static {
         Map<String, String> tokens = new LinkedHashMap<>();
         tokens.put("NIFTY 50", "99926000");
         tokens.put("NIFTY BANK", "99926009");
         INDEX_TOKENS = Collections.unmodifiableMap(tokens);
+
+        Map<String, String> names = new HashMap<>();
+        tokens.forEach((name, token) -> names.put(token, name));
+        INDEX_NAMES = Collections.unmodifiableMap(names);
     }
 
-    private HttpEntity<Map<String, Object>> buildIndexQuoteRequest(String mode) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("mode", mode);
+    // The quote endpoint accepts at most 50 tokens per request across all exchanges
+    private static final int MAX_QUOTE_TOKENS = 50;
 
+    private HttpEntity<Map<String, Object>> buildIndexQuoteRequest(String mode, Collection<String> tokens) {
         Map<String, List<String>> exchangeTokens = new HashMap<>();
-        exchangeTokens.put("NSE", new ArrayList<>(INDEX_TOKENS.values()));
+        exchangeTokens.put(INDEX_EXCHANGE, new ArrayList<>(tokens));
+        return buildQuoteRequest(mode, exchangeTokens);
+    }
+
+    private HttpEntity<Map<String, Object>> buildQuoteRequest(String mode, Map<String, List<String>> exchangeTokens) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("mode", mode);
         requestBody.put("exchangeTokens", exchangeTokens);
 
         HttpHeaders headers = createHeaders(true);
@@ -58,189 +77,178 @@ public class MarketDataService {
         return 0.0d;
     }
 
-    // AngelOne API credentials injected from application.properties
-    @Value("${angelone.api.key}")
-    private String apiKey;
-
-    @Value("${angelone.client.id}")
-    private String clientId;
+    // JSON parser for API responses
+    private final ObjectMapper objectMapper;
 
-    @Value("${angelone.client.password}")
-    private String clientPassword;
+    // HTTP client for making API calls
+    private final RestTemplate restTemplate;
 
-    @Value("${angelone.client.totp}")
-    private String totpp;
+    // Short-lived price caches shared by every user, keyed by "EXCHANGE:token"
+    private final PriceCache<Double> ltpCache;
+    private final PriceCache<IndexQuote> indexQuoteCache;
 
-    // Authentication tokens received from AngelOne API
-    private String jwtToken;
-    private String refreshToken;
-    private String feedToken;
+    // Merges concurrent LTP misses from different callers into shared quote calls
+    private final RequestBatcher<String, Double> ltpBatcher;
 
-    // Network details for API authentication
-    private String clientLocalIP;
-    private String clientPublicIP;
-    private String macAddress;
+    // Live ticks from the SmartStream feed, consulted before any REST call
+    private final LivePriceBook livePriceBook;
 
-    // JSON parser for API responses
-    private final ObjectMapper objectMapper;
+    // Streaming parser for candle responses
+    private final CandleParser candleParser;
 
-    // HTTP client for making API calls
-    private final RestTemplate restTemplate;
+    // Broker login and token renewal; every request reads the current session from here
+    private final AngelOneSessionManager sessionManager;
 
-    // Constructor injection for RestTemplate and ObjectMapper
-    public MarketDataService(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    // Constructor injection for RestTemplate, ObjectMapper, the live price book, candle parser, session manager and cache settings
+    public MarketDataService(RestTemplate restTemplate, ObjectMapper objectMapper, LivePriceBook livePriceBook,
+                             CandleParser candleParser, AngelOneSessionManager sessionManager,
+                             @Value("${marketdata.cache.ttl-ms:1000}") long cacheTtlMillis,
+                             @Value("${marketdata.cache.max-entries:5000}") int cacheMaxEntries) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.livePriceBook = livePriceBook;
+        this.candleParser = candleParser;
+        this.sessionManager = sessionManager;
+        this.ltpCache = new PriceCache<>(cacheTtlMillis, cacheMaxEntries);
+        this.indexQuoteCache = new PriceCache<>(cacheTtlMillis, INDEX_TOKENS.size());
+        this.ltpBatcher = new RequestBatcher<>(MAX_QUOTE_TOKENS, this::fetchLtpBatch);
     }
 
-    // Initialize service by logging into AngelOne after bean creation
-    @PostConstruct
-    public void init() {
-        try {
-            System.out.println("--- Attempting to log in to Angel One Smart API via Direct HTTP... ---");
-
-            // Auto-detect network details required for API authentication
-            this.clientLocalIP = getLocalIPAddress();
-            this.clientPublicIP = getPublicIPAddress();
-            this.macAddress = getMacAddress();
-            System.out.println("Detected Local IP: " + clientLocalIP);
-            System.out.println("Detected Public IP: " + clientPublicIP);
-            System.out.println("Detected MAC: " + macAddress);
-
-            // Generate TOTP code for two-factor authentication
-            GoogleAuthenticator gAuth = new GoogleAuthenticator();
-            int totpCode = gAuth.getTotpPassword(totpp);
-            String totp = String.format("%06d", totpCode);
-
-            // Prepare login request with credentials
-            String url = BASE_URL + "/rest/auth/angelbroking/user/v1/loginByPassword";
-            Map<String, String> requestBody = new HashMap<>();
-            requestBody.put("clientcode", clientId);
-            requestBody.put("password", clientPassword);
-            requestBody.put("totp", totp);
-
-            // Create HTTP headers and request entity
-            HttpHeaders headers = createHeaders(false);
-            HttpEntity<Map<String, String>> request = new HttpEntity<>(requestBody, headers);
-
-            // Make login API call
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
-            JsonNode root = objectMapper.readTree(response.getBody());
+    // Session details needed by the SmartStream client to open the feed socket
+    public String getFeedToken() {
+        AngelOneSession session = sessionManager.current();
+        return session != null ? session.getFeedToken() : null;
+    }
 
-            // Check if login was successful
-            if (!root.has("status") || !root.get("status").asBoolean()) {
-                throw new RuntimeException("Failed to generate Angel One session. API returned null. Check credentials/TOTP.");
-            }
+    public String getJwtToken() {
+        AngelOneSession session = sessionManager.current();
+        return session != null ? session.getJwtToken() : null;
+    }
 
-            // Extract and store authentication tokens
-            JsonNode data = root.get("data");
-            this.jwtToken = data.get("jwtToken").asText();
-            this.refreshToken = data.get("refreshToken").asText();
-            this.feedToken = data.get("feedToken").asText();
+    public String getClientId() {
+        return sessionManager.getClientId();
+    }
 
-            System.out.println("Angel One Login Success!");
+    public String getApiKey() {
+        return sessionManager.getApiKey();
+    }
 
-        } catch (Exception e) {
-            System.err.println("--- FAILED TO LOGIN TO ANGEL ONE ---");
-            e.printStackTrace();
-        }
+    private boolean hasSession() {
+        return sessionManager.current() != null;
     }
 
-    // Create HTTP headers for API requests with required authentication parameters
+    // Create HTTP headers for API requests from one consistent snapshot of the session
     private HttpHeaders createHeaders(boolean requiresAuth) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Accept", "application/json");
-        headers.set("X-UserType", "USER");
-        headers.set("X-SourceID", "WEB");
-        headers.set("X-ClientLocalIP", clientLocalIP);
-        headers.set("X-ClientPublicIP", clientPublicIP);
-        headers.set("X-MACAddress", macAddress);
-        headers.set("X-PrivateKey", apiKey);
-
-        // Add JWT token for authenticated endpoints
-        if (requiresAuth && jwtToken != null) {
-            headers.set("Authorization", "Bearer " + jwtToken);
+        AngelOneSession session = sessionManager.current();
+        if (session == null) {
+            throw new IllegalStateException("AngelOne session not established");
         }
-
-        return headers;
+        return sessionManager.headers(session, requiresAuth ? session.getJwtToken() : null);
     }
 
     // Fetch Last Traded Price (LTP) for a specific stock
     public double getLtp(String exchange, String tradingSymbol, String symbolToken) {
+        return getLtps(Map.of(exchange, List.of(symbolToken))).getOrDefault(PriceCache.key(exchange, symbolToken), 0.0);
+    }
+
+    // Fetch LTPs for many tokens at once: live ticks first, then the shared price cache.
+    // Returns "EXCHANGE:token" (PriceCache.key) -> LTP, since token numbers overlap across exchanges;
+    // tokens the API did not return are absent from the map.
+    public Map<String, Double> getLtps(Map<String, ? extends Collection<String>> exchangeTokens) {
+        Map<String, Double> prices = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+
+        exchangeTokens.forEach((exchange, tokens) -> tokens.forEach(token -> {
+            MarketTick tick = livePriceBook.getTick(exchange, token);
+            if (tick != null) {
+                prices.put(PriceCache.key(exchange, token), tick.getLtp());
+            } else {
+                // Not streaming yet (or stale): subscribe it and fall back to REST this time
+                livePriceBook.track(exchange, token);
+                keys.add(PriceCache.key(exchange, token));
+            }
+        }));
+
+        if (!keys.isEmpty()) {
+            prices.putAll(ltpCache.getAll(keys, this::fetchLtps));
+        }
+        return prices;
+    }
+
+    // Upstream LTP fetch for cache misses; the batcher packs up to MAX_QUOTE_TOKENS into each quote call
+    private Map<String, Double> fetchLtps(Set<String> keys) {
         // Check if service is initialized
-        if (jwtToken == null) {
-            System.out.println("AngelOne not initialized! Cannot fetch price");
-            return 0.0;
+        if (!hasSession()) {
+            log.warn("AngelOne not initialized! Cannot fetch prices");
+            return new HashMap<>();
         }
+        return ltpBatcher.load(keys);
+    }
 
-        try {
-            // Prepare LTP request payload
-            String url = BASE_URL + "/rest/secure/angelbroking/market/v1/quote/";
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("mode", "LTP");
-            requestBody.put("exchangeTokens", Map.of(exchange, List.of(symbolToken)));
+    // One quote call for at most MAX_QUOTE_TOKENS "EXCHANGE:token" keys
+    private Map<String, Double> fetchLtpBatch(Set<String> keys) {
+        Map<String, List<String>> exchangeTokens = new HashMap<>();
+        for (String key : keys) {
+            int separator = key.indexOf(':');
+            exchangeTokens.computeIfAbsent(key.substring(0, separator), k -> new ArrayList<>())
+                    .add(key.substring(separator + 1));
+        }
 
-            // Create request with authentication headers
-            HttpHeaders headers = createHeaders(true);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+        Map<String, Double> prices = new HashMap<>();
+        String url = BASE_URL + "/rest/secure/angelbroking/market/v1/quote/";
 
-            // Make API call to fetch LTP
+        try {
+            // Make API call to fetch LTP for the whole batch
+            HttpEntity<Map<String, Object>> request = buildQuoteRequest("LTP", exchangeTokens);
             ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
             JsonNode root = objectMapper.readTree(response.getBody());
 
-            // Parse LTP from response
-            if (root.has("data") && root.get("data").has("fetched")) {
-                JsonNode fetched = root.get("data").get("fetched").get(0);
-                if (fetched.has("ltp")) {
-                    return fetched.get("ltp").asDouble();
-                }
+            // Parse LTP for every fetched instrument
+            JsonNode fetchedArray = root.path("data").path("fetched");
+            if (!root.path("status").asBoolean(false) || !fetchedArray.isArray()) {
+                log.warn("Could not parse LTPs from response: {}", root);
+                return prices;
             }
 
-            System.err.println("Could not parse LTP from response: " + root.toString());
-            return 0.0;
+            for (JsonNode fetched : fetchedArray) {
+                double ltp = readNumericValue(fetched, "ltp");
+                if (Double.isFinite(ltp)) {
+                    String key = PriceCache.key(fetched.path("exchange").asText(), fetched.path("symbolToken").asText());
+                    prices.put(key, ltp);
+                }
+            }
 
+        } catch (UpstreamThrottledException e) {
+            // No answer is not "no price": let the cache serve stale values or the caller fail
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
-            return 0.0;
+            log.error("Error fetching LTPs for {}", keys, e);
         }
-    }
-
-    // Search for instruments/stocks by name or symbol
-    public String searchInstruments(String query) {
-        // Check if service is initialized
-        if (jwtToken == null) {
-            System.err.println("Angel One service not initialized! Cannot search.");
-            return "[]";
-        }
-
-        try {
-            // Prepare search request
-            String url = BASE_URL + "/rest/secure/angelbroking/order/v1/searchScrip";
-            Map<String, String> requestBody = new HashMap<>();
-            requestBody.put("exchange", "NSE");
-            requestBody.put("searchscrip", query);
 
-            // Create request with authentication
-            HttpHeaders headers = createHeaders(true);
-            HttpEntity<Map<String, String>> request = new HttpEntity<>(requestBody, headers);
+        return prices;
+    }
 
-            // Call search API
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
-            return response.getBody();
+    // Hit/miss/coalesced counters for the shared price caches
+    public Map<String, Map<String, Long>> getCacheStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("ltp", ltpCache.stats());
+        stats.put("indices", indexQuoteCache.stats());
+        return stats;
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "[]";
-        }
+    // Fetch historical price data (candlestick data) for charting.
+    // The response body is streamed straight into primitive columns by CandleParser.
+    public CandleSeries getPriceData(String exchange, String symboltoken, String interval, String fromDate, String toDate) {
+        CandleSeries data = fetchCandleData(exchange, symboltoken, interval, fromDate, toDate);
+        return data != null ? data : new ArrayCandleSeries(1);
     }
 
-    // Fetch historical price data (candlestick data) for charting
-    public List<ScripPriceData> getPriceData(String exchange, String symboltoken, String interval, String fromDate, String toDate) {
+    // Candles for the range, or null if the call failed; unlike getPriceData an empty result really means no candles
+    public CandleSeries fetchCandleData(String exchange, String symboltoken, String interval, String fromDate, String toDate) {
         // Check if service is initialized
-        if (jwtToken == null) {
-            System.err.println("Angel One service not initialized! Cannot get price data");
-            return new ArrayList<>();
+        if (!hasSession()) {
+            log.warn("Angel One service not initialized! Cannot get price data");
+            return null;
         }
 
         try {
@@ -257,52 +265,22 @@ public class MarketDataService {
             HttpHeaders headers = createHeaders(true);
             HttpEntity<Map<String, String>> request = new HttpEntity<>(requestBody, headers);
 
-            // Make API call
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
-
-            // Validate response
-            if (response.getBody() == null || response.getBody().isEmpty()) {
-                System.err.println("Angel one returned null / empty response for candle data");
-                return new ArrayList<>();
-            }
-
-            // Parse JSON response into ScripPriceData objects
-            JsonNode root = objectMapper.readTree(response.getBody());
-            List<ScripPriceData> data = new ArrayList<>();
-
-            if (root.has("data") && root.get("status").asBoolean() && !root.get("data").isNull()) {
-                JsonNode dataArray = root.get("data");
-
-                // Each candle is an array: [timestamp, open, high, low, close, volume]
-                for (JsonNode candle : dataArray) {
-                    ScripPriceData dto = ScripPriceData.builder()
-                            .timestamp(candle.get(0).asText())
-                            .open(candle.get(1).asDouble())
-                            .high(candle.get(2).asDouble())
-                            .low(candle.get(3).asDouble())
-                            .close(candle.get(4).asDouble())
-                            .volume(candle.get(5).asLong())
-                            .build();
-                    data.add(dto);
-                }
-            } else {
-                System.err.println("Angel one API returned error status or null data: " + root.toString());
-            }
-
-            return data;
+            // Make API call, parsing the body as it arrives
+            return restTemplate.execute(url, HttpMethod.POST,
+                    restTemplate.httpEntityCallback(request),
+                    response -> candleParser.parse(response.getBody()));
 
         } catch (Exception e) {
-            System.err.println("Angel One service error: ");
-            e.printStackTrace();
-            return new ArrayList<>();
+            log.error("Error fetching candles for {}:{} {}", exchange, symboltoken, interval, e);
+            return null;
         }
     }
 
     // Fetch user's portfolio holdings from AngelOne
     public List<HoldingResponse> getHolding() {
         // Check if service is initialized
-        if (jwtToken == null) {
-            System.err.println("Angel One service not initialized! Cannot get holding data");
+        if (!hasSession()) {
+            log.warn("Angel One service not initialized! Cannot get holding data");
             return new ArrayList<>();
         }
 
@@ -315,56 +293,53 @@ public class MarketDataService {
             // Make API call to fetch holdings
             ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, request, String.class);
 
-            // Log the full response for debugging
-            System.out.println("=== AngelOne Holdings API Response ===");
-            System.out.println("Status Code: " + response.getStatusCode());
-            System.out.println("Response Body: " + response.getBody());
-            System.out.println("=====================================");
+            log.debug("AngelOne holdings response {}: {}", response.getStatusCode(), response.getBody());
 
-            JsonNode root = objectMapper.readTree(response.getBody());
-            List<HoldingResponse> userHoldings = new ArrayList<>();
-
-            // Parse holdings data if response is successful
-            if (root.has("data") && !root.get("data").isNull() && root.get("status").asBoolean()) {
-                JsonNode dataObj = root.get("data");
-
-                System.out.println("Data object structure: " + dataObj.toString());
-
-                if (dataObj.has("holdings") && !dataObj.get("holdings").isNull()) {
-                    JsonNode holdingArray = dataObj.get("holdings");
-                    System.out.println("Holdings array found with " + holdingArray.size() + " items");
-
-                    // Map each holding to HoldingResponse DTO
-                    for (JsonNode rawHolding : holdingArray) {
-                        HoldingResponse dto = HoldingResponse.builder()
-                                .tradingSymbol(rawHolding.path("tradingsymbol").asText())
-                                .symbolToken(rawHolding.path("symboltoken").asText())
-                                .quantity(rawHolding.path("quantity").asInt())
-                                .averagePrice(rawHolding.path("averageprice").asDouble(0.0))
-                                .LTP(rawHolding.path("ltp").asDouble(0.0))
-                                .PnL(rawHolding.path("profitandloss").asDouble(0.0))
-                                .profitPercentage(rawHolding.path("pnlpercentage").asDouble(0.0))
-                                .build();
+            return parseHoldings(response.getBody());
 
-                        userHoldings.add(dto);
-                    }
-                } else {
-                    System.err.println("No 'holdings' field found in data object!");
-                    System.err.println("Available fields in data: " + dataObj.fieldNames());
+        } catch (Exception e) {
+            log.error("Error fetching holdings", e);
+            return new ArrayList<>();
+        }
+    }
+
+    // Maps a getAllHolding response body; kept apart from the call so it can run on recorded payloads
+    public List<HoldingResponse> parseHoldings(String body) throws IOException {
+        JsonNode root = objectMapper.readTree(body);
+        List<HoldingResponse> userHoldings = new ArrayList<>();
+
+        // Parse holdings data if response is successful
+        if (root.has("data") && !root.get("data").isNull() && root.get("status").asBoolean()) {
+            JsonNode dataObj = root.get("data");
+
+            if (dataObj.has("holdings") && !dataObj.get("holdings").isNull()) {
+                JsonNode holdingArray = dataObj.get("holdings");
+                log.debug("Holdings array found with {} items", holdingArray.size());
+
+                // Map each holding to HoldingResponse DTO
+                for (JsonNode rawHolding : holdingArray) {
+                    HoldingResponse dto = HoldingResponse.builder()
+                            .tradingSymbol(rawHolding.path("tradingsymbol").asText())
+                            .symbolToken(rawHolding.path("symboltoken").asText())
+                            .quantity(rawHolding.path("quantity").asInt())
+                            .averagePrice(rawHolding.path("averageprice").asDouble(0.0))
+                            .LTP(rawHolding.path("ltp").asDouble(0.0))
+                            .PnL(rawHolding.path("profitandloss").asDouble(0.0))
+                            .profitPercentage(rawHolding.path("pnlpercentage").asDouble(0.0))
+                            .build();
+
+                    userHoldings.add(dto);
                 }
             } else {
-                System.err.println("API returned error status or null data");
-                System.err.println("Status: " + (root.has("status") ? root.get("status").asBoolean() : "missing"));
-                System.err.println("Message: " + root.path("message").asText("no message"));
+                log.warn("No 'holdings' field in holdings response data");
             }
-
-            return userHoldings;
-
-        } catch (Exception e) {
-            System.err.println("Error fetching holdings: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
+        } else {
+            log.warn("Holdings API returned error status or null data: status={}, message={}",
+                    root.has("status") ? root.get("status").asBoolean() : "missing",
+                    root.path("message").asText("no message"));
         }
+
+        return userHoldings;
     }
 
     // Fetch live LTP for major indices using quote API (only LTP)
@@ -377,14 +352,49 @@ public class MarketDataService {
 
     // Fetch live Last Traded Price for all major indices (Nifty, Bank Nifty, etc.)(OHLC)
     public Map<String, IndexQuote> getIndicesFullData() {
-        if (jwtToken == null) {
-            System.err.println("Angel One service not initialized!");
+        Map<String, IndexQuote> quotes = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+
+        // Prefer QUOTE-mode ticks from the live feed; they carry the day's OHLC
+        INDEX_TOKENS.forEach((name, token) -> {
+            MarketTick tick = livePriceBook.getTick(INDEX_EXCHANGE, token);
+            if (tick != null && tick.getMode() >= SmartStreamCodec.MODE_QUOTE) {
+                quotes.put(PriceCache.key(INDEX_EXCHANGE, token), buildIndexQuote(name, tick.getLtp(),
+                        tick.getOpen(), tick.getHigh(), tick.getLow(), tick.getClose(), Double.NaN, Double.NaN));
+            } else {
+                livePriceBook.track(INDEX_EXCHANGE, token);
+                keys.add(PriceCache.key(INDEX_EXCHANGE, token));
+            }
+        });
+
+        if (!keys.isEmpty()) {
+            quotes.putAll(indexQuoteCache.getAll(keys, this::fetchIndexQuotes));
+        }
+
+        // Keep the display order defined by INDEX_TOKENS
+        Map<String, IndexQuote> indicesData = new LinkedHashMap<>();
+        INDEX_TOKENS.forEach((name, token) -> {
+            IndexQuote quote = quotes.get(PriceCache.key(INDEX_EXCHANGE, token));
+            if (quote != null) {
+                indicesData.put(name, quote);
+            }
+        });
+        return indicesData;
+    }
+
+    // Upstream FULL quote fetch for the index keys missing from the cache
+    private Map<String, IndexQuote> fetchIndexQuotes(Set<String> keys) {
+        if (!hasSession()) {
+            log.warn("Angel One service not initialized! Cannot fetch index quotes");
             return new LinkedHashMap<>();
         }
 
         try {
+            List<String> tokens = new ArrayList<>();
+            keys.forEach(key -> tokens.add(key.substring(key.indexOf(':') + 1)));
+
             String url = BASE_URL + "/rest/secure/angelbroking/market/v1/quote/";
-            HttpEntity<Map<String, Object>> request = buildIndexQuoteRequest("FULL");
+            HttpEntity<Map<String, Object>> request = buildIndexQuoteRequest("FULL", tokens);
 
             ResponseEntity<String> response = restTemplate.exchange(
                     url,
@@ -399,79 +409,85 @@ public class MarketDataService {
             }
 
             if (responseBody.trim().startsWith("<html")) {
-                System.err.println("API returned HTML error while fetching indices data");
+                log.warn("API returned HTML error while fetching indices data");
                 return new LinkedHashMap<>();
             }
 
-            JsonNode root = objectMapper.readTree(responseBody);
-            if (!root.path("status").asBoolean(false)) {
-                System.err.println("API error: " + root.path("message").asText("Unknown error"));
-                return new LinkedHashMap<>();
-            }
+            return parseIndexQuotes(responseBody);
 
-            JsonNode fetchedArray = root.path("data").path("fetched");
-            if (!fetchedArray.isArray()) {
-                return new LinkedHashMap<>();
-            }
+        } catch (Exception e) {
+            log.error("Error fetching index quotes", e);
+            return new LinkedHashMap<>();
+        }
+    }
 
-            Map<String, String> tokenToName = new HashMap<>();
-            INDEX_TOKENS.forEach((name, token) -> tokenToName.put(token, name));
+    // Maps a FULL-mode quote response for the index tokens, keyed by "EXCHANGE:token"
+    public Map<String, IndexQuote> parseIndexQuotes(String body) throws IOException {
+        JsonNode root = objectMapper.readTree(body);
+        if (!root.path("status").asBoolean(false)) {
+            log.warn("Index quote API error: {}", root.path("message").asText("Unknown error"));
+            return new LinkedHashMap<>();
+        }
 
-            Map<String, IndexQuote> indicesData = new LinkedHashMap<>();
+        JsonNode fetchedArray = root.path("data").path("fetched");
+        if (!fetchedArray.isArray()) {
+            return new LinkedHashMap<>();
+        }
 
-            for (JsonNode item : fetchedArray) {
-                String symbolToken = item.path("symbolToken").asText();
-                String indexName = tokenToName.get(symbolToken);
-                if (indexName == null) {
-                    continue;
-                }
+        Map<String, IndexQuote> indicesData = new LinkedHashMap<>();
 
-                double ltp = readNumericValue(item, "ltp");
-                double open = readNumericValue(item, "open");
-                double high = readNumericValue(item, "high");
-                double low = readNumericValue(item, "low");
-                double close = readNumericValue(item, "close");
-                double change = readNumericValue(item, "change");
-                double percentChange = readNumericValue(item, "perChange");
+        for (JsonNode item : fetchedArray) {
+            String symbolToken = item.path("symbolToken").asText();
+            String indexName = INDEX_NAMES.get(symbolToken);
+            if (indexName == null) {
+                continue;
+            }
 
-                if (!Double.isFinite(change) && Double.isFinite(ltp) && Double.isFinite(close)) {
-                    change = ltp - close;
-                }
+            IndexQuote quote = buildIndexQuote(indexName,
+                    readNumericValue(item, "ltp"),
+                    readNumericValue(item, "open"),
+                    readNumericValue(item, "high"),
+                    readNumericValue(item, "low"),
+                    readNumericValue(item, "close"),
+                    readNumericValue(item, "change"),
+                    readNumericValue(item, "perChange"));
 
-                if (!Double.isFinite(percentChange) && Double.isFinite(change) && Double.isFinite(close) && Math.abs(close) > 0.0001d) {
-                    percentChange = (change / close) * 100d;
-                }
+            indicesData.put(PriceCache.key(INDEX_EXCHANGE, symbolToken), quote);
+        }
 
-                double sanitizedChange = sanitizeNumeric(change);
-                double sanitizedPercentChange = sanitizeNumeric(percentChange);
-
-                IndexQuote quote = IndexQuote.builder()
-                        .name(indexName)
-                        .ltp(sanitizeNumeric(ltp))
-                        .open(sanitizeNumeric(open))
-                        .high(sanitizeNumeric(high))
-                        .low(sanitizeNumeric(low))
-                        .close(sanitizeNumeric(close))
-                        .change(sanitizedChange)
-                        .percentChange(sanitizedPercentChange)
-                        .trend(MarketTrend.fromChange(sanitizedChange))
-                        .build();
-
-                indicesData.put(indexName, quote);
-            }
+        return indicesData;
+    }
 
-            return indicesData;
+    // Build an IndexQuote, deriving change/percent change from close when they are missing
+    private IndexQuote buildIndexQuote(String indexName, double ltp, double open, double high, double low,
+                                       double close, double change, double percentChange) {
+        if (!Double.isFinite(change) && Double.isFinite(ltp) && Double.isFinite(close)) {
+            change = ltp - close;
+        }
 
-        } catch (Exception e) {
-            System.err.println("Error fetching full data: " + e.getMessage());
-            e.printStackTrace();
-            return new LinkedHashMap<>();
+        if (!Double.isFinite(percentChange) && Double.isFinite(change) && Double.isFinite(close) && Math.abs(close) > 0.0001d) {
+            percentChange = (change / close) * 100d;
         }
+
+        double sanitizedChange = sanitizeNumeric(change);
+        double sanitizedPercentChange = sanitizeNumeric(percentChange);
+
+        return IndexQuote.builder()
+                .name(indexName)
+                .ltp(sanitizeNumeric(ltp))
+                .open(sanitizeNumeric(open))
+                .high(sanitizeNumeric(high))
+                .low(sanitizeNumeric(low))
+                .close(sanitizeNumeric(close))
+                .change(sanitizedChange)
+                .percentChange(sanitizedPercentChange)
+                .trend(MarketTrend.fromChange(sanitizedChange))
+                .build();
     }
 
     public List<OIResponse> getOIResponse(){
-        if(jwtToken == null) {
-            System.err.println("Angel One API returned error status");
+        if(!hasSession()) {
+            log.warn("Angel One service not initialized! Cannot fetch PCR data");
             return new ArrayList<>();
         }
         try{
@@ -485,17 +501,13 @@ public class MarketDataService {
             ResponseEntity<String> response = restTemplate.exchange(URL, HttpMethod.GET, request, String.class);
             String responseBody = response.getBody();
 
-            // Log response for debugging
-            System.out.println("=== PCR/OI API Response ===");
-            System.out.println("Status: " + response.getStatusCode());
+            log.debug("AngelOne PCR response status {}", response.getStatusCode());
 
             JsonNode root = objectMapper.readTree(responseBody);
             List<OIResponse> oiResponse = new ArrayList<>();
 
             if(root.has("data") && !root.get("data").isNull() && root.get("status").asBoolean()) {
                 JsonNode dataArray = root.get("data");
-                System.out.println("Data is array: " + dataArray.isArray());
-                System.out.println("Data array size: " + (dataArray.isArray() ? dataArray.size() : "N/A"));
 
                 if(dataArray.isArray()) {
                     for(JsonNode item : dataArray) {
@@ -504,20 +516,17 @@ public class MarketDataService {
                                 .tradingSymbol(item.has("tradingSymbol") ? item.get("tradingSymbol").asText() : "")
                                 .build();
                         oiResponse.add(DTO);
-                        System.out.println("Added PCR: " + DTO.getPcr() + " for " + DTO.getTradingSymbol());
                     }
                 }
             } else {
-                System.err.println("PCR API returned error or invalid data structure");
-                System.err.println("Has data: " + root.has("data"));
-                System.err.println("Status: " + (root.has("status") ? root.get("status").asBoolean() : "missing"));
+                log.warn("PCR API returned error or invalid data structure: hasData={}, status={}",
+                        root.has("data"), root.has("status") ? root.get("status").asBoolean() : "missing");
             }
 
-            System.out.println("Returning " + oiResponse.size() + " PCR entries");
+            log.debug("Returning {} PCR entries", oiResponse.size());
             return oiResponse;
         } catch (Exception e) {
-            System.err.println("Error fetching OI Response: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error fetching OI response", e);
             return new ArrayList<>();
         }
     }
@@ -545,61 +554,8 @@ public class MarketDataService {
             }
 
         } catch (Exception e) {
-            System.err.println("Error parsing indices response: " + e.getMessage());
+            log.warn("Error parsing indices response: {}", e.getMessage());
         }
         return indicesMap;
     }
-
-
-
-    // Auto-detect local IP address of the machine
-    private String getLocalIPAddress() {
-        try {
-            return java.net.InetAddress.getLocalHost().getHostAddress();
-        } catch (Exception e) {
-            System.err.println("Could not detect local IP, using default");
-            return "192.168.1.1";
-        }
-    }
-
-    // Auto-detect public IP address using external service
-    private String getPublicIPAddress() {
-        try {
-            java.net.URL url = new java.net.URL("https://api.ipify.org");
-            java.io.BufferedReader in = new java.io.BufferedReader(
-                    new java.io.InputStreamReader(url.openStream())
-            );
-            String ip = in.readLine();
-            in.close();
-            return ip;
-        } catch (Exception e) {
-            System.err.println("Could not detect public IP, using default");
-            return "106.51.68.11";
-        }
-    }
-
-    // Auto-detect MAC address of the network interface
-    private String getMacAddress() {
-        try {
-            java.net.InetAddress localHost = java.net.InetAddress.getLocalHost();
-            java.net.NetworkInterface ni = java.net.NetworkInterface.getByInetAddress(localHost);
-
-            // Check if network interface exists
-            if (ni == null || ni.getHardwareAddress() == null) {
-                throw new Exception("Hardware address not found");
-            }
-
-            // Convert byte array to MAC address string format
-            byte[] hardwareAddress = ni.getHardwareAddress();
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < hardwareAddress.length; i++) {
-                sb.append(String.format("%02X%s", hardwareAddress[i],
-                        (i < hardwareAddress.length - 1) ? ":" : ""));
-            }
-            return sb.toString().toLowerCase();
-        } catch (Exception e) {
-            System.err.println("Could not detect MAC address, using default");
-            return "fe:80:ab:cd:ef:gh";
-        }
-    }
-}
\ No newline at end of file
+}
@@ -2,35 +2,45 @@ package com.assetserve.monetary.service;
 
 import com.assetserve.monetary.dto.AddAssetRequest;
 import com.assetserve.monetary.dto.PortfolioAssetResponse;
+import com.assetserve.monetary.dto.PortfolioHistoryPoint;
+import com.assetserve.monetary.dto.PortfolioSummary;
 import com.assetserve.monetary.model.Asset;
-import com.assetserve.monetary.model.PortfolioHistory;
-import com.assetserve.monetary.model.User;
+import com.assetserve.monetary.model.PortfolioHistoryRollup;
 import com.assetserve.monetary.repository.AssetRepository;
 import com.assetserve.monetary.repository.PortfolioHistoryRepository;
-import com.assetserve.monetary.repository.UserRepository;
+import com.assetserve.monetary.repository.PortfolioHistoryRollupRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.nio.file.AccessDeniedException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PortfolioService {
 
-    private final UserRepository userRepository;
+    private final UserIdentityService userIdentityService;
     private final AssetRepository assetRepository;
-    private final MarketDataService marketDataService;
     private final PortfolioHistoryRepository portfolioHistoryRepository;
+    private final PortfolioHistoryRollupRepository portfolioHistoryRollupRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PortfolioValuationEngine valuationEngine;
+
+    // Most points a history range is served with before switching to weekly, then monthly closes
+    @Value("${portfolio.history.max-points:400}")
+    private int historyMaxPoints;
 
     public Asset addAsset(AddAssetRequest request, String userEmail) {
         //1. Find the user who is making this request
-        User user = userRepository.findByEmail(userEmail).
-                orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        Long userId = userIdentityService.resolveUserId(userEmail);
 
         // new Asset Object from DTO
         Asset newAsset = Asset.builder()
@@ -40,28 +50,34 @@ public class PortfolioService {
                 .assetType(request.getAssetType())
                 .quantity(request.getQuantity())
                 .purchasePrice(request.getPurchasePrice())
-                .user(user) //link this asset to logged in User
+                .user(userIdentityService.reference(userId)) //link this asset to logged in User
                 .build();
 
-        return assetRepository.save(newAsset);
+        Asset saved = assetRepository.save(newAsset);
+        eventPublisher.publishEvent(new HoldingsChangedEvent(userEmail));
+        return saved;
     }
 
+    // Served from the in-memory valuation kept current by live ticks
     public List<PortfolioAssetResponse> getPortfolio(String userEmail){
-        User user = userRepository.findByEmail(userEmail).
-                orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return valuationEngine.getPortfolio(userEmail);
+    }
 
-        List<Asset> assets = assetRepository.findByUserId(user.getId());
+    public PortfolioSummary getPortfolioSummary(String userEmail) {
+        return valuationEngine.getSummary(userEmail);
+    }
 
-        return assets.stream().map(asset -> {
-            double ltpDouble = marketDataService.getLtp(asset.getExchange(),
-                    asset.getSymbol(),// e.g., "RELIANCE.NS"
-                    asset.getSymbolToken()
-            );
+    public List<Asset> findAssets(String userEmail) {
+        return assetRepository.findByUserId(userIdentityService.resolveUserId(userEmail));
+    }
 
-            BigDecimal currentPrice = BigDecimal.valueOf(ltpDouble);
-            BigDecimal totalValue = currentPrice.multiply(asset.getQuantity());
-            BigDecimal costBasis = asset.getPurchasePrice().multiply(asset.getQuantity());
-            BigDecimal profitAndLoss = totalValue.subtract(costBasis);
+    // Value already-loaded assets against an "EXCHANGE:token" -> LTP map, in FixedPoint units
+    public List<PortfolioAssetResponse> valueAssets(List<Asset> assets, Map<String, Double> ltps) {
+        return assets.stream().map(asset -> {
+            long currentPrice = FixedPoint.of(ltps.getOrDefault(PriceCache.key(asset.getExchange(), asset.getSymbolToken()), 0.0));
+            long quantity = FixedPoint.of(asset.getQuantity());
+            long totalValue = FixedPoint.multiply(currentPrice, quantity);
+            long costBasis = FixedPoint.multiply(FixedPoint.of(asset.getPurchasePrice()), quantity);
 
             //Building the DTO
             return PortfolioAssetResponse.builder()
@@ -70,52 +86,61 @@ public class PortfolioService {
                     .assetType(asset.getAssetType())
                     .quantity(String.valueOf(asset.getQuantity()))
                     .assetPrice(String.valueOf(asset.getPurchasePrice()))
-                    .currentPrice(currentPrice)
-                    .totalValue(totalValue)
-                    .profitAndLoss(profitAndLoss)
+                    .currentPrice(FixedPoint.toBigDecimal(currentPrice))
+                    .totalValue(FixedPoint.toBigDecimal(totalValue))
+                    .profitAndLoss(FixedPoint.toBigDecimal(totalValue - costBasis))
                     .build();
         }).collect(Collectors.toList());
 
     }
 
+    // exchange -> symbol tokens, the shape MarketDataService.getLtps expects
+    public static Map<String, Set<String>> groupTokensByExchange(List<Asset> assets) {
+        return assets.stream().collect(Collectors.groupingBy(
+                Asset::getExchange,
+                Collectors.mapping(Asset::getSymbolToken, Collectors.toSet())
+        ));
+    }
 
     public void deleteAsset(Long assetId, String userEmail) throws AccessDeniedException {
-        User user = userRepository.findByEmail(userEmail).
-                orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        Long userId = userIdentityService.resolveUserId(userEmail);
 
         Asset asset = assetRepository.findById(assetId)
                 .orElseThrow(()-> new UsernameNotFoundException("Asset not found with id" + assetId));
 
         //Check if the asset's user ID matches the logged-in user's ID if not throw an error.
-        if(!asset.getUser().getId().equals(user.getId())){
+        if(!asset.getUser().getId().equals(userId)){
             throw new AccessDeniedException("You do not have permission to delete this assets");
         }
 
         assetRepository.delete(asset);
+        eventPublisher.publishEvent(new HoldingsChangedEvent(userEmail));
     }
 
-    public List<PortfolioHistory> getPortfolioHistory(String userEmail, String range) {
-        User user = userRepository.findByEmail(userEmail).
-                orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        LocalDate startDate = LocalDate.now();
-        switch (range){
-            case "3m":
-                startDate = LocalDate.now().minusMonths(3);
-                break;
-            case "6m":
-                startDate = LocalDate.now().minusMonths(6);
-                break;
-            case "12m":
-                startDate = LocalDate.now().minusMonths(12);
-                break;
-            default:
-                startDate = LocalDate.now().minusYears(100);
-                break;
+    // Daily points while the span of history actually in the range fits the point budget, then
+    // weekly and finally monthly closes, so payloads stay flat however much history a user has
+    public List<PortfolioHistoryPoint> getPortfolioHistory(String userEmail, String range) {
+        Long userId = userIdentityService.resolveUserId(userEmail);
+
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = switch (range) {
+            case "3m" -> today.minusMonths(3);
+            case "6m" -> today.minusMonths(6);
+            case "12m" -> today.minusMonths(12);
+            default -> today.minusYears(100);
+        };
+
+        LocalDate first = portfolioHistoryRepository.findFirstSnapshotAfter(userId, startDate);
+        if (first == null) {
+            return List.of();
+        }
+        long spanDays = ChronoUnit.DAYS.between(first, today) + 1;
+        if (spanDays <= historyMaxPoints) {
+            return portfolioHistoryRepository.findPoints(userId, startDate);
         }
-        return portfolioHistoryRepository.findByUserIdAndSnapshotDataAfterOrderBySnapshotDataAsc(
-                user.getId(),
-                startDate
-        );
+        PortfolioHistoryRollup.Granularity granularity = spanDays / 7 <= historyMaxPoints
+                ? PortfolioHistoryRollup.Granularity.WEEK
+                : PortfolioHistoryRollup.Granularity.MONTH;
+        return portfolioHistoryRollupRepository.findPoints(userId, granularity, startDate);
     }
 }
@@ -1,57 +1,310 @@
 package com.assetserve.monetary.service;
 
-import com.assetserve.monetary.dto.PortfolioAssetResponse;
-import com.assetserve.monetary.model.PortfolioHistory;
-import com.assetserve.monetary.model.User;
-import com.assetserve.monetary.repository.PortfolioHistoryRepository;
-import com.assetserve.monetary.repository.UserRepository;
-import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
+import com.assetserve.monetary.exception.UpstreamThrottledException;
+import com.assetserve.monetary.model.PortfolioHistoryRollup;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.List;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Daily portfolio valuation for every user, run after market close on a thread of its own (the
+ * cron trigger only hands it over, so scheduler threads are never held up by it).
+ * Prices are fetched once for the union of all held instruments; users are then valued in
+ * id-ordered chunks on virtual threads (bounded by {@code snapshot.parallelism}) and written with
+ * JDBC batches. Writes are an upsert on the (user, date) unique constraint, so re-running a day,
+ * or two instances running it at once, never duplicates a row. Prices missing after the fetch
+ * (a failed or throttled quote batch) are retried a few times; a user whose holdings are still not
+ * all priced is skipped for the day rather than written undervalued over a correct row.
+ * The same transaction moves the user's weekly and monthly rollup to the new close; at startup
+ * each rollup granularity is backfilled from the daily rows once.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-public class PortfolioSnapshotService {
+public class PortfolioSnapshotService implements BootstrapTask {
 
-    private final UserRepository userRepository;
-    private final PortfolioService portfolioService;
-    private final PortfolioHistoryRepository portfolioHistoryRepository;
+    private static final ZoneId MARKET_ZONE = ZoneId.of("Asia/Kolkata");
 
-    @PostConstruct
-        public void takeDailySnapshot(){
-        log.info("--- Starting Daily Portfolio Snapshot Job ---");
+    // quantity in FixedPoint units
+    private record Holding(String exchange, String symbolToken, long quantity) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MarketDataService marketDataService;
+    private final UpstreamRateGovernor upstreamRateGovernor;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int priceAttempts;
+    private final long priceRetryDelayMillis;
 
-        List<User> allUsers = userRepository.findAll();
+    private final AtomicBoolean running = new AtomicBoolean();
+    // The job can wait minutes on background-lane quote permits; keep it off the scheduler threads
+    private final ExecutorService jobs =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("portfolio-snapshot").factory());
 
-        for (User user : allUsers) {
-            try{
-                List<PortfolioAssetResponse> portfolio = portfolioService.getPortfolio(user.getEmail());
+    public PortfolioSnapshotService(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    MarketDataService marketDataService,
+                                    UpstreamRateGovernor upstreamRateGovernor,
+                                    @Value("${snapshot.chunk-size:500}") int chunkSize,
+                                    @Value("${snapshot.parallelism:4}") int parallelism,
+                                    @Value("${snapshot.price-attempts:3}") int priceAttempts,
+                                    @Value("${snapshot.price-retry-delay-ms:30000}") long priceRetryDelayMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.marketDataService = marketDataService;
+        this.upstreamRateGovernor = upstreamRateGovernor;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.priceAttempts = priceAttempts;
+        this.priceRetryDelayMillis = priceRetryDelayMillis;
+    }
 
-                BigDecimal portfolioValue = portfolio.stream()
-                        .map(PortfolioAssetResponse::getTotalValue)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    @Override
+    public String getBootstrapName() {
+        return "historyRollups";
+    }
 
-                PortfolioHistory snaphot = PortfolioHistory.builder()
-                        .user(user)
-                        .snapshotData(LocalDate.now())
-                        .portfolioValue(portfolioValue)
-                        .build();
+    @Override
+    public void bootstrap() {
+        ensureUniqueDailyRows();
+        backfillRollups();
+    }
 
-                portfolioHistoryRepository.save(snaphot);
+    // Databases created before the unique constraint may hold duplicate days, which also stop
+    // ddl-auto from adding it: keep the newest row of each (user, day) and add it here instead
+    private void ensureUniqueDailyRows() {
+        Boolean constrained = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_indexes WHERE tablename = 'portfolio_history' " +
+                "AND indexname = 'uk_portfolio_history_user_date')", Boolean.class);
+        if (Boolean.TRUE.equals(constrained)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int removed = jdbcTemplate.update(
+                    "DELETE FROM portfolio_history a USING portfolio_history b " +
+                    "WHERE a.user_id = b.user_id AND a.snapshot_data = b.snapshot_data AND a.id < b.id");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_portfolio_history_user_date " +
+                    "ON portfolio_history (user_id, snapshot_data)");
+            log.info("Removed {} duplicate portfolio history rows and added the (user, day) unique index", removed);
+        });
+    }
 
-                log.info("Successfully saved snapshot for user: {}", user.getEmail());
-            }catch (Exception e){
-                log.error("Error while saving snapshot for user: {}", user.getEmail(), e);
+    // One-off backfill, per granularity, of history written before the rollups existed. Claiming the
+    // marker row and backfilling share one transaction: a failure retries on the next start, and
+    // rollups already written by the snapshot job neither block nor get overwritten by it.
+    private void backfillRollups() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (PortfolioHistoryRollup.Granularity granularity : PortfolioHistoryRollup.Granularity.values()) {
+                int claimed = jdbcTemplate.update(
+                        "INSERT INTO portfolio_history_rollup_backfill (granularity, completed_at) VALUES (?, ?) " +
+                        "ON CONFLICT (granularity) DO NOTHING",
+                        granularity.name(), Timestamp.from(Instant.now()));
+                if (claimed == 0) {
+                    continue;
+                }
+                String unit = granularity.name().toLowerCase();
+                int rows = jdbcTemplate.update(
+                        "INSERT INTO portfolio_history_rollup (user_id, granularity, period_start, snapshot_data, portfolio_value) " +
+                        "SELECT DISTINCT ON (user_id, date_trunc('" + unit + "', snapshot_data)) " +
+                        "user_id, ?, CAST(date_trunc('" + unit + "', snapshot_data) AS date), snapshot_data, portfolio_value " +
+                        "FROM portfolio_history " +
+                        "ORDER BY user_id, date_trunc('" + unit + "', snapshot_data), snapshot_data DESC " +
+                        "ON CONFLICT (user_id, granularity, period_start) DO NOTHING",
+                        granularity.name());
+                log.info("Backfilled {} {} portfolio rollups", rows, unit);
             }
+        });
+    }
+
+    // NSE closes at 15:30 IST; give closing prices a few minutes to settle
+    @Scheduled(cron = "${snapshot.cron:0 45 15 * * MON-FRI}", zone = "Asia/Kolkata")
+    public void takeDailySnapshot() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Portfolio snapshot already running, skipping this trigger");
+            return;
         }
-        log.info("--- Ending Daily Portfolio Snapshot Job ---");
+        LocalDate date = LocalDate.now(MARKET_ZONE);
+        jobs.execute(() -> {
+            try {
+                // Batch work: its quote calls wait behind interactive requests
+                upstreamRateGovernor.inBackground(() -> takeSnapshot(date));
+            } catch (RuntimeException e) {
+                log.error("Portfolio snapshot for {} failed", date, e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.shutdownNow();
     }
 
+    public void takeSnapshot(LocalDate date) {
+        long started = System.currentTimeMillis();
+        log.info("--- Starting Daily Portfolio Snapshot Job for {} ---", date);
+
+        // 1. One deduplicated price fetch for everything anyone holds
+        Map<String, Set<String>> exchangeTokens = new HashMap<>();
+        jdbcTemplate.query("SELECT DISTINCT exchange, symbol_token FROM assets", rs -> {
+            exchangeTokens.computeIfAbsent(rs.getString(1), k -> new HashSet<>()).add(rs.getString(2));
+        });
+        Map<String, Double> ltps = fetchPrices(exchangeTokens);
+        log.info("Fetched {} of {} prices for the snapshot", ltps.size(),
+                exchangeTokens.values().stream().mapToInt(Set::size).sum());
+
+        // 2. Value and write users in id-range chunks, a bounded number at a time
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger unpriced = new AtomicInteger();
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<?>> chunks = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < userIds.size(); from += chunkSize) {
+                List<Long> chunk = userIds.subList(from, Math.min(userIds.size(), from + chunkSize));
+                chunks.add(executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        snapshotChunk(chunk, ltps, date, written, unpriced);
+                    } catch (Exception e) {
+                        log.error("Snapshot failed for users {}..{}", chunk.get(0), chunk.get(chunk.size() - 1), e);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        if (unpriced.get() > 0) {
+            log.warn("Skipped {} users whose holdings could not all be priced for {}", unpriced.get(), date);
+        }
+        log.info("--- Ending Daily Portfolio Snapshot Job: {} users in {} chunks, {} written, {} ms ---",
+                userIds.size(), chunks.size(), written.get(), System.currentTimeMillis() - started);
+    }
+
+    // Prices for every held instrument, asking again for the ones still missing (a failed quote
+    // batch, or the whole fetch throttled) up to snapshot.price-attempts times
+    private Map<String, Double> fetchPrices(Map<String, Set<String>> exchangeTokens) {
+        Map<String, Double> ltps = new HashMap<>();
+        Map<String, Set<String>> missing = exchangeTokens;
+        for (int attempt = 1; attempt <= priceAttempts && !missing.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                log.info("Retrying {} snapshot prices in {} ms (attempt {} of {})",
+                        missing.values().stream().mapToInt(Set::size).sum(), priceRetryDelayMillis, attempt, priceAttempts);
+                try {
+                    Thread.sleep(priceRetryDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            try {
+                ltps.putAll(marketDataService.getLtps(missing));
+            } catch (UpstreamThrottledException e) {
+                log.warn("Snapshot price fetch throttled: {}", e.getMessage());
+            }
+
+            Map<String, Set<String>> stillMissing = new HashMap<>();
+            missing.forEach((exchange, tokens) -> tokens.forEach(token -> {
+                if (!ltps.containsKey(PriceCache.key(exchange, token))) {
+                    stillMissing.computeIfAbsent(exchange, k -> new HashSet<>()).add(token);
+                }
+            }));
+            missing = stillMissing;
+        }
+        return ltps;
+    }
+
+    private void snapshotChunk(List<Long> userIds, Map<String, Double> ltps, LocalDate date,
+                               AtomicInteger written, AtomicInteger unpriced) {
+        long firstId = userIds.get(0);
+        long lastId = userIds.get(userIds.size() - 1);
+
+        Map<Long, List<Holding>> holdings = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, exchange, symbol_token, quantity FROM assets WHERE user_id BETWEEN ? AND ?",
+                rs -> {
+                    holdings.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>())
+                            .add(new Holding(rs.getString(2), rs.getString(3), FixedPoint.of(rs.getBigDecimal(4))));
+                }, firstId, lastId);
+
+        List<Object[]> rows = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            Long value = valueHoldings(holdings.getOrDefault(userId, List.of()), ltps);
+            if (value == null) {
+                unpriced.incrementAndGet();
+                continue;
+            }
+            rows.add(new Object[]{FixedPoint.toBigDecimal(value), userId, Date.valueOf(date)});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            upsert(rows);
+            upsertRollups(rows, date);
+        });
+        written.addAndGet(rows.size());
+    }
+
+    // Sum of quantity * LTP, or null when any holding has no price: unlike the live views, a
+    // stored day must not count a missing price as zero
+    private static Long valueHoldings(List<Holding> holdings, Map<String, Double> ltps) {
+        long total = 0;
+        for (Holding holding : holdings) {
+            Double ltp = ltps.get(PriceCache.key(holding.exchange(), holding.symbolToken()));
+            if (ltp == null) {
+                return null;
+            }
+            total += FixedPoint.multiply(FixedPoint.of(ltp), holding.quantity());
+        }
+        return total;
+    }
+
+    // Insert the day's rows, or overwrite the values of rows already written for that day
+    private void upsert(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO portfolio_history (portfolio_value, user_id, snapshot_data) VALUES (?, ?, ?) " +
+                "ON CONFLICT (user_id, snapshot_data) DO UPDATE SET portfolio_value = EXCLUDED.portfolio_value", rows);
+    }
+
+    // Move each user's week and month close to this day, unless the period already holds a later day
+    private void upsertRollups(List<Object[]> rows, LocalDate date) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Object[]> rollups = new ArrayList<>(rows.size() * 2);
+        for (PortfolioHistoryRollup.Granularity granularity : PortfolioHistoryRollup.Granularity.values()) {
+            Date periodStart = Date.valueOf(granularity.periodStart(date));
+            for (Object[] row : rows) {
+                rollups.add(new Object[]{row[1], granularity.name(), periodStart, row[2], row[0]});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO portfolio_history_rollup (user_id, granularity, period_start, snapshot_data, portfolio_value) " +
+                "VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT (user_id, granularity, period_start) DO UPDATE " +
+                "SET snapshot_data = EXCLUDED.snapshot_data, portfolio_value = EXCLUDED.portfolio_value " +
+                "WHERE portfolio_history_rollup.snapshot_data <= EXCLUDED.snapshot_data", rollups);
+    }
 }
@@ -0,0 +1,278 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.MarketTick;
+import com.assetserve.monetary.dto.PortfolioAssetResponse;
+import com.assetserve.monetary.dto.PortfolioSummary;
+import com.assetserve.monetary.model.Asset;
+import com.assetserve.monetary.repository.AssetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps each active user's portfolio valued in memory. Asset rows are merged into one position
+ * per instrument, and a reverse index (instrument -> users) routes every live tick to just the
+ * books that hold it, which adjust their totals by quantity x price change. Reads only go
+ * upstream for positions whose price is older than {@code portfolio.valuation.max-price-age-ms},
+ * i.e. when the stream is not delivering that instrument. All amounts are {@link FixedPoint}
+ * units, so repricing allocates nothing; BigDecimal appears only in the responses.
+ */
+@Service
+@Slf4j
+public class PortfolioValuationEngine {
+
+    private static final class Position {
+        private final String exchange;
+        private final String symbolToken;
+        private long quantity;
+        private long costBasis;
+        private long ltp;
+        private long value;
+        private long pricedAt;
+
+        private Position(String exchange, String symbolToken) {
+            this.exchange = exchange;
+            this.symbolToken = symbolToken;
+        }
+    }
+
+    // One user's holdings; every field is guarded by the book's monitor
+    private static final class Book {
+        private final List<Asset> assets;
+        // Per asset row, in the order of assets
+        private final Position[] assetPositions;
+        private final long[] assetQuantities;
+        private final long[] assetCosts;
+        private final Map<String, Position> positions = new HashMap<>();
+        private long totalValue;
+        private long costBasis;
+        private volatile long lastRead = System.currentTimeMillis();
+
+        private Book(List<Asset> assets) {
+            this.assets = assets;
+            this.assetPositions = new Position[assets.size()];
+            this.assetQuantities = new long[assets.size()];
+            this.assetCosts = new long[assets.size()];
+        }
+
+        private synchronized void reprice(String key, double ltp, long pricedAt) {
+            Position position = positions.get(key);
+            if (position == null || pricedAt < position.pricedAt) {
+                return;
+            }
+            long price = FixedPoint.of(ltp);
+            long value = FixedPoint.multiply(price, position.quantity);
+            totalValue += value - position.value;
+            position.ltp = price;
+            position.value = value;
+            position.pricedAt = pricedAt;
+        }
+    }
+
+    private final UserIdentityService userIdentityService;
+    private final AssetRepository assetRepository;
+    private final MarketDataService marketDataService;
+    private final long maxPriceAgeMillis;
+    private final long idleMillis;
+
+    private final ConcurrentHashMap<String, Book> books = new ConcurrentHashMap<>();
+    // EX:token -> the loaded books holding it; by instance, so dropping a replaced or evicted book
+    // never unhooks the one that took its place
+    private final ConcurrentHashMap<String, Set<Book>> holders = new ConcurrentHashMap<>();
+
+    public PortfolioValuationEngine(UserIdentityService userIdentityService,
+                                    AssetRepository assetRepository,
+                                    MarketDataService marketDataService,
+                                    LivePriceBook livePriceBook,
+                                    @Value("${portfolio.valuation.max-price-age-ms:5000}") long maxPriceAgeMillis,
+                                    @Value("${portfolio.valuation.idle-ms:3600000}") long idleMillis) {
+        this.userIdentityService = userIdentityService;
+        this.assetRepository = assetRepository;
+        this.marketDataService = marketDataService;
+        this.maxPriceAgeMillis = maxPriceAgeMillis;
+        this.idleMillis = idleMillis;
+        livePriceBook.addListener(this::onTick);
+    }
+
+    public List<PortfolioAssetResponse> getPortfolio(String userEmail) {
+        Book book = freshBook(userEmail);
+        synchronized (book) {
+            List<PortfolioAssetResponse> portfolio = new ArrayList<>(book.assets.size());
+            for (int i = 0; i < book.assets.size(); i++) {
+                Asset asset = book.assets.get(i);
+                Position position = book.assetPositions[i];
+                long totalValue = FixedPoint.multiply(position.ltp, book.assetQuantities[i]);
+
+                portfolio.add(PortfolioAssetResponse.builder()
+                        .id(asset.getId())
+                        .symbol(asset.getSymbol())
+                        .assetType(asset.getAssetType())
+                        .quantity(String.valueOf(asset.getQuantity()))
+                        .assetPrice(String.valueOf(asset.getPurchasePrice()))
+                        .currentPrice(FixedPoint.toBigDecimal(position.ltp))
+                        .totalValue(FixedPoint.toBigDecimal(totalValue))
+                        .profitAndLoss(FixedPoint.toBigDecimal(totalValue - book.assetCosts[i]))
+                        .build());
+            }
+            return portfolio;
+        }
+    }
+
+    public PortfolioSummary getSummary(String userEmail) {
+        Book book = freshBook(userEmail);
+        synchronized (book) {
+            return PortfolioSummary.builder()
+                    .positions(book.positions.size())
+                    .totalValue(FixedPoint.toBigDecimal(book.totalValue))
+                    .costBasis(FixedPoint.toBigDecimal(book.costBasis))
+                    .profitAndLoss(FixedPoint.toBigDecimal(book.totalValue - book.costBasis))
+                    .build();
+        }
+    }
+
+    // Holdings changed: rebuild the book if this user has one loaded. The load (a query and a price
+    // fetch) runs outside the map; only the swap itself happens under its lock.
+    @EventListener
+    public void onHoldingsChanged(HoldingsChangedEvent event) {
+        String email = event.getUserEmail();
+        if (!books.containsKey(email)) {
+            return;
+        }
+        Book fresh = loadBook(email);
+        index(fresh);
+        Book[] replaced = new Book[1];
+        books.computeIfPresent(email, (e, old) -> {
+            replaced[0] = old;
+            return fresh;
+        });
+        // Evicted meanwhile: the next read loads it again
+        unindex(replaced[0] != null ? replaced[0] : fresh);
+    }
+
+    // Drop books nobody has read for a while; they are rebuilt on the next read
+    @Scheduled(fixedDelayString = "${portfolio.valuation.evict-interval-ms:300000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        books.forEach((email, book) -> {
+            if (book.lastRead < cutoff && books.remove(email, book)) {
+                unindex(book);
+            }
+        });
+    }
+
+    public int size() {
+        return books.size();
+    }
+
+    private void onTick(MarketTick tick) {
+        String key = PriceCache.key(tick.getExchange(), tick.getToken());
+        Set<Book> holding = holders.get(key);
+        if (holding == null) {
+            return;
+        }
+        for (Book book : holding) {
+            book.reprice(key, tick.getLtp(), tick.getReceivedAt());
+        }
+    }
+
+    // The user's book, with any position the stream has not priced recently refreshed in one call
+    private Book freshBook(String userEmail) {
+        Book book = books.get(userEmail);
+        if (book == null) {
+            // Loaded outside the map so other users' lookups never wait on this one's I/O; indexed
+            // before publishing so no tick is missed, and dropped again if another load won
+            Book loaded = loadBook(userEmail);
+            index(loaded);
+            book = books.putIfAbsent(userEmail, loaded);
+            if (book == null) {
+                book = loaded;
+            } else {
+                unindex(loaded);
+            }
+        }
+        book.lastRead = System.currentTimeMillis();
+
+        long staleBefore = System.currentTimeMillis() - maxPriceAgeMillis;
+        Map<String, Set<String>> stale = new HashMap<>();
+        synchronized (book) {
+            for (Position position : book.positions.values()) {
+                if (position.pricedAt < staleBefore) {
+                    stale.computeIfAbsent(position.exchange, k -> new HashSet<>()).add(position.symbolToken);
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            applyPrices(book, marketDataService.getLtps(stale));
+        }
+        return book;
+    }
+
+    private Book loadBook(String userEmail) {
+        Book book = new Book(List.copyOf(assetRepository.findByUserId(userIdentityService.resolveUserId(userEmail))));
+
+        // Merge rows of the same instrument into one position
+        for (int i = 0; i < book.assets.size(); i++) {
+            Asset asset = book.assets.get(i);
+            String key = PriceCache.key(asset.getExchange(), asset.getSymbolToken());
+            Position position = book.positions.computeIfAbsent(key,
+                    k -> new Position(asset.getExchange(), asset.getSymbolToken()));
+            long quantity = FixedPoint.of(asset.getQuantity());
+            long cost = FixedPoint.multiply(FixedPoint.of(asset.getPurchasePrice()), quantity);
+            book.assetPositions[i] = position;
+            book.assetQuantities[i] = quantity;
+            book.assetCosts[i] = cost;
+            position.quantity += quantity;
+            position.costBasis += cost;
+            book.costBasis += cost;
+        }
+
+        // Instruments without a price stay at zero, as they did before
+        Map<String, Set<String>> exchangeTokens = PortfolioService.groupTokensByExchange(book.assets);
+        if (!exchangeTokens.isEmpty()) {
+            applyPrices(book, marketDataService.getLtps(exchangeTokens));
+        }
+        log.debug("Loaded portfolio book for {} with {} positions", userEmail, book.positions.size());
+        return book;
+    }
+
+    // getLtps results are keyed by PriceCache.key, like the positions
+    private static void applyPrices(Book book, Map<String, Double> ltps) {
+        long now = System.currentTimeMillis();
+        List<Position> positions;
+        synchronized (book) {
+            positions = new ArrayList<>(book.positions.values());
+        }
+        for (Position position : positions) {
+            String key = PriceCache.key(position.exchange, position.symbolToken);
+            Double ltp = ltps.get(key);
+            if (ltp != null) {
+                book.reprice(key, ltp, now);
+            }
+        }
+    }
+
+    // Add or remove under the key's lock, so an emptied set is never dropped while a book joins it
+    private void index(Book book) {
+        for (String key : book.positions.keySet()) {
+            holders.compute(key, (k, holding) -> {
+                Set<Book> updated = holding != null ? holding : ConcurrentHashMap.newKeySet();
+                updated.add(book);
+                return updated;
+            });
+        }
+    }
+
+    private void unindex(Book book) {
+        for (String key : book.positions.keySet()) {
+            holders.computeIfPresent(key, (k, holding) -> {
+                holding.remove(book);
+                return holding.isEmpty() ? null : holding;
+            });
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.MarketTick;
+import com.assetserve.monetary.dto.PriceAlert;
+import com.assetserve.monetary.dto.WatchlistTarget;
+import com.assetserve.monetary.repository.UserWatchListRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates watchlist target prices against live ticks. Targets are indexed per instrument in two
+ * sorted maps: those waiting for the price to fall to them and those waiting for it to rise to
+ * them. A tick only touches the thresholds it crossed (O(log n + k)), and the common case where
+ * nothing was crossed is two volatile reads. Each alert fires once per target: the delivery thread
+ * stamps {@code targetFiredAt} on the watchlist row before handing the alert to every
+ * {@link AlertSink}, so restarts do not re-arm it, and changing the target clears the stamp.
+ */
+@Service
+@Slf4j
+public class PriceAlertEngine implements BootstrapTask {
+
+    private record Trigger(long watchlistId, Long userId, String userEmail, String symbolToken, String symbolName,
+                           double target, PriceAlert.Direction direction) {
+    }
+
+    // All armed triggers of one instrument
+    private static final class SymbolTriggers {
+        // Fire when price <= threshold
+        private final TreeMap<Double, List<Trigger>> below = new TreeMap<>();
+        // Fire when price >= threshold
+        private final TreeMap<Double, List<Trigger>> above = new TreeMap<>();
+        private volatile double highestBelow = Double.NEGATIVE_INFINITY;
+        private volatile double lowestAbove = Double.POSITIVE_INFINITY;
+
+        synchronized void add(Trigger trigger) {
+            side(trigger.direction()).computeIfAbsent(trigger.target(), k -> new ArrayList<>(1)).add(trigger);
+            refreshBounds();
+        }
+
+        synchronized void remove(Trigger trigger) {
+            TreeMap<Double, List<Trigger>> side = side(trigger.direction());
+            List<Trigger> triggers = side.get(trigger.target());
+            if (triggers != null && triggers.remove(trigger) && triggers.isEmpty()) {
+                side.remove(trigger.target());
+            }
+            refreshBounds();
+        }
+
+        // Removes and returns the triggers this price crossed
+        List<Trigger> cross(double price) {
+            if (price > highestBelow && price < lowestAbove) {
+                return List.of();
+            }
+            synchronized (this) {
+                List<Trigger> crossed = new ArrayList<>();
+                drain(below.tailMap(price, true), crossed);
+                drain(above.headMap(price, true), crossed);
+                refreshBounds();
+                return crossed;
+            }
+        }
+
+        private TreeMap<Double, List<Trigger>> side(PriceAlert.Direction direction) {
+            return direction == PriceAlert.Direction.BELOW ? below : above;
+        }
+
+        private static void drain(NavigableMap<Double, List<Trigger>> range, List<Trigger> into) {
+            range.values().forEach(into::addAll);
+            range.clear();
+        }
+
+        private void refreshBounds() {
+            highestBelow = below.isEmpty() ? Double.NEGATIVE_INFINITY : below.lastKey();
+            lowestAbove = above.isEmpty() ? Double.POSITIVE_INFINITY : above.firstKey();
+        }
+    }
+
+    private final UserWatchListRepository userWatchListRepository;
+    private final LivePriceBook livePriceBook;
+    private final List<AlertSink> sinks;
+
+    // EX:token -> armed triggers
+    private final ConcurrentHashMap<String, SymbolTriggers> bySymbol = new ConcurrentHashMap<>();
+    // email -> that user's armed triggers, so a watchlist change can re-arm just that user
+    private final ConcurrentHashMap<String, List<Trigger>> byUser = new ConcurrentHashMap<>();
+    // watchlist id -> target that fired but is not stamped on the row yet, so a re-arm in between
+    // does not alert twice; entries leave as soon as the stamp is written
+    private final ConcurrentHashMap<Long, Double> firing = new ConcurrentHashMap<>();
+
+    private final ExecutorService delivery =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("price-alerts").factory());
+
+    public PriceAlertEngine(UserWatchListRepository userWatchListRepository,
+                            LivePriceBook livePriceBook,
+                            List<AlertSink> sinks) {
+        this.userWatchListRepository = userWatchListRepository;
+        this.livePriceBook = livePriceBook;
+        this.sinks = sinks;
+        livePriceBook.addListener(this::onTick);
+    }
+
+    @Override
+    public String getBootstrapName() {
+        return "priceAlerts";
+    }
+
+    @Override
+    public void bootstrap() {
+        Map<String, List<WatchlistTarget>> targets = userWatchListRepository.findAllTargets().stream()
+                .collect(Collectors.groupingBy(WatchlistTarget::getUserEmail));
+        targets.forEach(this::arm);
+        log.info("Price alert engine armed {} targets for {} users",
+                byUser.values().stream().mapToInt(List::size).sum(), byUser.size());
+    }
+
+    @EventListener
+    public void onHoldingsChanged(HoldingsChangedEvent event) {
+        arm(event.getUserEmail(), userWatchListRepository.findTargetsByUserEmail(event.getUserEmail()));
+    }
+
+    // Replace a user's triggers with ones built from their current watchlist rows
+    private void arm(String userEmail, List<WatchlistTarget> rows) {
+        byUser.compute(userEmail, (email, previous) -> {
+            if (previous != null) {
+                previous.forEach(this::disarm);
+            }
+
+            List<Trigger> armed = new ArrayList<>();
+            for (WatchlistTarget row : rows) {
+                Double target = row.getProjectedBuyPrice();
+                if (target == null || target <= 0 || row.getTargetFiredAt() != null
+                        || target.equals(firing.get(row.getId()))) {
+                    continue;
+                }
+
+                Trigger trigger = new Trigger(row.getId(), row.getUserId(), email, row.getSymbolToken(), row.getSymbolName(),
+                        target, directionFor(row, target));
+                String key = PriceCache.key(WatchlistService.WATCHLIST_EXCHANGE, row.getSymbolToken());
+                bySymbol.computeIfAbsent(key, k -> new SymbolTriggers()).add(trigger);
+                livePriceBook.track(WatchlistService.WATCHLIST_EXCHANGE, row.getSymbolToken());
+                armed.add(trigger);
+            }
+            return armed.isEmpty() ? null : armed;
+        });
+    }
+
+    // A target under the current price waits for a fall, one over it for a rise
+    private PriceAlert.Direction directionFor(WatchlistTarget row, double target) {
+        MarketTick tick = livePriceBook.getTick(WatchlistService.WATCHLIST_EXCHANGE, row.getSymbolToken());
+        Double reference = tick != null ? Double.valueOf(tick.getLtp()) : row.getCurrentLtp();
+        return reference == null || target <= reference ? PriceAlert.Direction.BELOW : PriceAlert.Direction.ABOVE;
+    }
+
+    private void disarm(Trigger trigger) {
+        SymbolTriggers triggers = bySymbol.get(PriceCache.key(WatchlistService.WATCHLIST_EXCHANGE, trigger.symbolToken()));
+        if (triggers != null) {
+            triggers.remove(trigger);
+        }
+    }
+
+    private void onTick(MarketTick tick) {
+        SymbolTriggers triggers = bySymbol.get(PriceCache.key(tick.getExchange(), tick.getToken()));
+        if (triggers == null) {
+            return;
+        }
+        List<Trigger> crossed = triggers.cross(tick.getLtp());
+        if (crossed.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        for (Trigger trigger : crossed) {
+            firing.put(trigger.watchlistId(), trigger.target());
+            byUser.computeIfPresent(trigger.userEmail(), (email, armed) -> {
+                armed.remove(trigger);
+                return armed.isEmpty() ? null : armed;
+            });
+
+            PriceAlert alert = PriceAlert.builder()
+                    .watchlistId(trigger.watchlistId())
+                    .userId(trigger.userId())
+                    .userEmail(trigger.userEmail())
+                    .symbolToken(trigger.symbolToken())
+                    .symbolName(trigger.symbolName())
+                    .direction(trigger.direction())
+                    .targetPrice(trigger.target())
+                    .triggerPrice(tick.getLtp())
+                    .triggeredAt(now)
+                    .build();
+            delivery.execute(() -> deliver(alert));
+        }
+    }
+
+    private void deliver(PriceAlert alert) {
+        try {
+            userWatchListRepository.markTargetFired(alert.getWatchlistId(), alert.getTargetPrice(), alert.getTriggeredAt());
+            firing.remove(alert.getWatchlistId(), alert.getTargetPrice());
+        } catch (Exception e) {
+            // Stays in firing, so this process still will not alert on it again
+            log.warn("Could not record fired alert for watchlist {}", alert.getWatchlistId(), e);
+        }
+        for (AlertSink sink : sinks) {
+            try {
+                sink.deliver(alert);
+            } catch (Exception e) {
+                log.warn("Alert sink {} failed for watchlist {}", sink.getClass().getSimpleName(), alert.getWatchlistId(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delivery.shutdown();
+    }
+}
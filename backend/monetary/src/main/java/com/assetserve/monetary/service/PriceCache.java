@@ -0,0 +1,172 @@
+package com.assetserve.monetary.service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based in-process cache for market prices keyed by "EXCHANGE:token".
+ * Concurrent misses for the same key are coalesced so only one upstream call is made;
+ * the other callers wait for that call and share its result. If the loader throws, keys with a
+ * last known value are served stale and the failure is rethrown only when some key has none.
+ */
+public class PriceCache<V> {
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAtNanos;
+
+        private Entry(V value, long loadedAtNanos) {
+            this.value = value;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PriceCache(long ttlMillis, int maxEntries) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxEntries = maxEntries;
+    }
+
+    public static String key(String exchange, String token) {
+        return exchange + ":" + token;
+    }
+
+    /**
+     * Return fresh values for the given keys. Keys that are missing or expired and not already
+     * being loaded by another thread are handed to the loader in a single call. Keys the loader
+     * cannot resolve fall back to the last known (stale) value, if any.
+     */
+    public Map<String, V> getAll(Collection<String> keys, Function<Set<String>, Map<String, V>> loader) {
+        Map<String, V> result = new HashMap<>();
+        Map<String, CompletableFuture<V>> owned = new HashMap<>();
+        Map<String, CompletableFuture<V>> waiting = new HashMap<>();
+        long now = System.nanoTime();
+
+        for (String key : new LinkedHashSet<>(keys)) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.loadedAtNanos < ttlNanos) {
+                hits.increment();
+                result.put(key, entry.value);
+                continue;
+            }
+
+            // Either claim the load for this key or join the one already running
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+            if (existing != null) {
+                coalesced.increment();
+                waiting.put(key, existing);
+            } else {
+                misses.increment();
+                owned.put(key, mine);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            Map<String, V> loaded = null;
+            RuntimeException failure = null;
+            boolean unresolved = false;
+            try {
+                loaded = loader.apply(Collections.unmodifiableSet(owned.keySet()));
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                long loadedAt = System.nanoTime();
+                for (Map.Entry<String, CompletableFuture<V>> claim : owned.entrySet()) {
+                    String key = claim.getKey();
+                    V value = loaded != null ? loaded.get(key) : null;
+                    if (value != null) {
+                        entries.put(key, new Entry<>(value, loadedAt));
+                    } else {
+                        Entry<V> stale = entries.get(key);
+                        value = stale != null ? stale.value : null;
+                    }
+                    if (value != null) {
+                        result.put(key, value);
+                    }
+                    // Publish the entry before releasing waiters so late arrivals hit the cache
+                    inFlight.remove(key, claim.getValue());
+                    if (value == null && failure != null) {
+                        unresolved = true;
+                        claim.getValue().completeExceptionally(failure);
+                    } else {
+                        claim.getValue().complete(value);
+                    }
+                }
+                evictIfNeeded();
+            }
+            if (unresolved) {
+                throw failure;
+            }
+        }
+
+        for (Map.Entry<String, CompletableFuture<V>> wait : waiting.entrySet()) {
+            V value;
+            try {
+                value = wait.getValue().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            if (value != null) {
+                result.put(wait.getKey(), value);
+            }
+        }
+
+        return result;
+    }
+
+    // Drop expired entries first, then the oldest ones, until we are back under the bound
+    private void evictIfNeeded() {
+        if (entries.size() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            entries.forEach((key, entry) -> {
+                if (now - entry.loadedAtNanos >= ttlNanos && entries.remove(key, entry)) {
+                    evictions.increment();
+                }
+            });
+
+            int excess = entries.size() - maxEntries;
+            if (excess > 0) {
+                List<Map.Entry<String, Entry<V>>> oldest = new ArrayList<>(entries.entrySet());
+                oldest.sort(Comparator.comparingLong(e -> e.getValue().loadedAtNanos));
+                for (int i = 0; i < excess && i < oldest.size(); i++) {
+                    Map.Entry<String, Entry<V>> victim = oldest.get(i);
+                    if (entries.remove(victim.getKey(), victim.getValue())) {
+                        evictions.increment();
+                    }
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("size", (long) entries.size());
+        return stats;
+    }
+}
@@ -0,0 +1,304 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.IndexQuote;
+import com.assetserve.monetary.dto.PortfolioAssetResponse;
+import com.assetserve.monetary.dto.PriceAlert;
+import com.assetserve.monetary.dto.WatchlistResponse;
+import com.assetserve.monetary.exception.UpstreamThrottledException;
+import com.assetserve.monetary.model.Asset;
+import com.assetserve.monetary.model.UserWatchlist;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-Sent Events fan-out for index quotes, portfolio valuations, watchlist prices and
+ * triggered price alerts.
+ * One producer, on a thread of its own, fetches prices once per tick for the union of all
+ * subscribed symbols and queues an event for every subscriber whose view changed. Each subscriber
+ * has a bounded outbox written by its own virtual thread, so a slow or half-open client only ever
+ * stalls itself; one that falls {@code stream.subscriber-buffer} events behind is dropped.
+ * Holdings are loaded from the database when a stream opens and again only when a
+ * {@link HoldingsChangedEvent} arrives.
+ */
+@Service
+@Slf4j
+public class PriceStreamService implements AlertSink {
+
+    private static final class Subscription<T> {
+        private final String userEmail;
+        private volatile List<T> holdings;
+        private volatile Object lastSent;
+
+        private Subscription(String userEmail, List<T> holdings) {
+            this.userEmail = userEmail;
+            this.holdings = holdings;
+        }
+    }
+
+    private final class Outbox {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> events;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Outbox(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.events = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(String eventName, Object payload) {
+            if (closed) {
+                return;
+            }
+            if (!events.offer(SseEmitter.event().name(eventName).data(payload))) {
+                log.debug("Dropping {} stream subscriber: {} events behind", eventName, events.size());
+                drop(this, null);
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = events.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (Exception e) {
+                // Client went away
+                log.debug("Dropping stream subscriber: {}", e.getMessage());
+                drop(this, e);
+            } finally {
+                draining.set(false);
+                if (!closed && !events.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+    }
+
+    private final MarketDataService marketDataService;
+    private final PortfolioService portfolioService;
+    private final WatchlistService watchlistService;
+    private final UpstreamRateGovernor upstreamRateGovernor;
+    private final long emitterTimeoutMillis;
+    private final long pushIntervalMillis;
+    private final int subscriberBuffer;
+
+    private final Map<SseEmitter, Boolean> indexSubscribers = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, Subscription<Asset>> portfolioSubscribers = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, Subscription<UserWatchlist>> watchlistSubscribers = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, String> alertSubscribers = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, Outbox> outboxes = new ConcurrentHashMap<>();
+
+    // Price fetches can wait on background-lane permits; keep them off the scheduler threads
+    private final ScheduledExecutorService producer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("price-stream").factory());
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Map<String, IndexQuote> lastIndices = Map.of();
+
+    public PriceStreamService(MarketDataService marketDataService,
+                              PortfolioService portfolioService,
+                              WatchlistService watchlistService,
+                              UpstreamRateGovernor upstreamRateGovernor,
+                              @Value("${stream.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                              @Value("${stream.push-interval-ms:1000}") long pushIntervalMillis,
+                              @Value("${stream.subscriber-buffer:16}") int subscriberBuffer) {
+        this.marketDataService = marketDataService;
+        this.portfolioService = portfolioService;
+        this.watchlistService = watchlistService;
+        this.upstreamRateGovernor = upstreamRateGovernor;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.pushIntervalMillis = pushIntervalMillis;
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    @PostConstruct
+    public void start() {
+        producer.scheduleWithFixedDelay(this::publish, pushIntervalMillis, pushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        producer.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    public SseEmitter subscribeIndices() {
+        SseEmitter emitter = register(indexSubscribers);
+        indexSubscribers.put(emitter, Boolean.TRUE);
+        send(emitter, "indices", marketDataService.getIndicesFullData());
+        return emitter;
+    }
+
+    public SseEmitter subscribePortfolio(String userEmail) {
+        SseEmitter emitter = register(portfolioSubscribers);
+        Subscription<Asset> subscription = new Subscription<>(userEmail, portfolioService.findAssets(userEmail));
+        portfolioSubscribers.put(emitter, subscription);
+        pushPortfolio(emitter, subscription, fetchPrices(subscription.holdings, List.of()));
+        return emitter;
+    }
+
+    public SseEmitter subscribeWatchlist(String userEmail) {
+        SseEmitter emitter = register(watchlistSubscribers);
+        Subscription<UserWatchlist> subscription = new Subscription<>(userEmail, watchlistService.findWatchlist(userEmail));
+        watchlistSubscribers.put(emitter, subscription);
+        pushWatchlist(emitter, subscription, fetchPrices(List.of(), subscription.holdings));
+        return emitter;
+    }
+
+    public SseEmitter subscribeAlerts(String userEmail) {
+        SseEmitter emitter = register(alertSubscribers);
+        alertSubscribers.put(emitter, userEmail);
+        return emitter;
+    }
+
+    // Alerts are pushed as they trigger, to every open alert stream of the user
+    @Override
+    public void deliver(PriceAlert alert) {
+        alertSubscribers.forEach((emitter, userEmail) -> {
+            if (userEmail.equals(alert.getUserEmail())) {
+                send(emitter, "alert", alert);
+            }
+        });
+    }
+
+    // The single producer: one price fetch per tick, fanned out to every open stream.
+    // Runs in the background lane so a push cycle never delays a user's own request.
+    private void publish() {
+        try {
+            upstreamRateGovernor.inBackground(this::publishAll);
+        } catch (UpstreamThrottledException e) {
+            // Skip this push; subscribers keep their last values until the next tick
+            log.debug("Skipping stream push: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            // A failed cycle must not cancel the schedule
+            log.warn("Stream push failed", e);
+        }
+    }
+
+    private void publishAll() {
+        if (!indexSubscribers.isEmpty()) {
+            Map<String, IndexQuote> indices = marketDataService.getIndicesFullData();
+            if (!indices.isEmpty() && !indices.equals(lastIndices)) {
+                lastIndices = indices;
+                indexSubscribers.keySet().forEach(emitter -> send(emitter, "indices", indices));
+            }
+        }
+
+        if (portfolioSubscribers.isEmpty() && watchlistSubscribers.isEmpty()) {
+            return;
+        }
+
+        List<Asset> assets = new ArrayList<>();
+        portfolioSubscribers.values().forEach(s -> assets.addAll(s.holdings));
+        List<UserWatchlist> watchlists = new ArrayList<>();
+        watchlistSubscribers.values().forEach(s -> watchlists.addAll(s.holdings));
+
+        Map<String, Double> ltps = fetchPrices(assets, watchlists);
+
+        portfolioSubscribers.forEach((emitter, subscription) -> pushPortfolio(emitter, subscription, ltps));
+        watchlistSubscribers.forEach((emitter, subscription) -> pushWatchlist(emitter, subscription, ltps));
+    }
+
+    // Reload holdings only for the streams of the user whose data changed
+    @EventListener
+    public void onHoldingsChanged(HoldingsChangedEvent event) {
+        portfolioSubscribers.values().stream()
+                .filter(s -> s.userEmail.equals(event.getUserEmail()))
+                .forEach(s -> s.holdings = portfolioService.findAssets(s.userEmail));
+        watchlistSubscribers.values().stream()
+                .filter(s -> s.userEmail.equals(event.getUserEmail()))
+                .forEach(s -> s.holdings = watchlistService.findWatchlist(s.userEmail));
+    }
+
+    // Distinct symbols across all holdings, fetched in one batched call
+    private Map<String, Double> fetchPrices(List<Asset> assets, List<UserWatchlist> watchlists) {
+        Map<String, Set<String>> exchangeTokens = new HashMap<>(PortfolioService.groupTokensByExchange(assets));
+        for (UserWatchlist watchlist : watchlists) {
+            exchangeTokens.computeIfAbsent(WatchlistService.WATCHLIST_EXCHANGE, k -> new HashSet<>())
+                    .add(watchlist.getSymbolToken());
+        }
+        if (exchangeTokens.isEmpty()) {
+            return Map.of();
+        }
+        return marketDataService.getLtps(exchangeTokens);
+    }
+
+    private void pushPortfolio(SseEmitter emitter, Subscription<Asset> subscription, Map<String, Double> ltps) {
+        List<PortfolioAssetResponse> portfolio = portfolioService.valueAssets(subscription.holdings, ltps);
+        if (!portfolio.equals(subscription.lastSent)) {
+            subscription.lastSent = portfolio;
+            send(emitter, "portfolio", portfolio);
+        }
+    }
+
+    private void pushWatchlist(SseEmitter emitter, Subscription<UserWatchlist> subscription, Map<String, Double> ltps) {
+        List<WatchlistResponse> watchlist = watchlistService.priceWatchlist(subscription.holdings, ltps);
+        if (!watchlist.equals(subscription.lastSent)) {
+            subscription.lastSent = watchlist;
+            send(emitter, "watchlist", watchlist);
+        }
+    }
+
+    private SseEmitter register(Map<SseEmitter, ?> subscribers) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Outbox outbox = new Outbox(emitter, subscriberBuffer);
+        outboxes.put(emitter, outbox);
+        emitter.onCompletion(() -> forget(outbox));
+        emitter.onTimeout(() -> forget(outbox));
+        emitter.onError(error -> forget(outbox));
+        return emitter;
+    }
+
+    // Only queues the event; the subscriber's own writer sends it
+    private void send(SseEmitter emitter, String eventName, Object payload) {
+        Outbox outbox = outboxes.get(emitter);
+        if (outbox != null) {
+            outbox.offer(eventName, payload);
+        }
+    }
+
+    private void forget(Outbox outbox) {
+        outbox.closed = true;
+        outbox.events.clear();
+        outboxes.remove(outbox.emitter);
+        indexSubscribers.remove(outbox.emitter);
+        portfolioSubscribers.remove(outbox.emitter);
+        watchlistSubscribers.remove(outbox.emitter);
+        alertSubscribers.remove(outbox.emitter);
+    }
+
+    // Completing can block behind a send stuck on the socket, so it never runs on the caller's thread
+    private void drop(Outbox outbox, Exception error) {
+        forget(outbox);
+        writers.execute(() -> {
+            if (error != null) {
+                outbox.emitter.completeWithError(error);
+            } else {
+                outbox.emitter.complete();
+            }
+        });
+    }
+}
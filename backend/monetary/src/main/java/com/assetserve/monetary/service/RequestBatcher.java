@@ -0,0 +1,132 @@
+package com.assetserve.monetary.service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Merges keys requested concurrently by different callers into shared upstream calls of at most
+ * {@code maxBatchSize} keys. Keys are queued per {@link UpstreamRateGovernor.Lane}, so a batch only
+ * ever carries keys of one lane and is issued from a thread of that lane: interactive keys never
+ * wait behind a background drain and an interactive caller never drains a background backlog.
+ * Callers of a lane take turns issuing one batch each (their own keys first, topped up with
+ * whatever else is queued) and stop as soon as all of their own keys are complete.
+ */
+public class RequestBatcher<K, V> {
+
+    private static final class LaneQueue<K, V> {
+        private final ConcurrentHashMap<K, CompletableFuture<V>> pending = new ConcurrentHashMap<>();
+        private final ReentrantLock drainLock = new ReentrantLock();
+    }
+
+    private final int maxBatchSize;
+    private final Function<Set<K>, Map<K, V>> loader;
+    private final Map<UpstreamRateGovernor.Lane, LaneQueue<K, V>> lanes = new EnumMap<>(UpstreamRateGovernor.Lane.class);
+
+    public RequestBatcher(int maxBatchSize, Function<Set<K>, Map<K, V>> loader) {
+        this.maxBatchSize = maxBatchSize;
+        this.loader = loader;
+        for (UpstreamRateGovernor.Lane lane : UpstreamRateGovernor.Lane.values()) {
+            lanes.put(lane, new LaneQueue<>());
+        }
+    }
+
+    // Values for the keys the loader returned; keys it did not return are absent.
+    // A loader failure is rethrown to every caller whose keys were in the failed batch.
+    public Map<K, V> load(Collection<K> keys) {
+        UpstreamRateGovernor.Lane lane = UpstreamRateGovernor.currentLane();
+        LaneQueue<K, V> queue = lanes.get(lane);
+        LaneQueue<K, V> interactive = lanes.get(UpstreamRateGovernor.Lane.INTERACTIVE);
+
+        Map<K, CompletableFuture<V>> futures = new HashMap<>();
+        Map<K, CompletableFuture<V>> own = new HashMap<>();
+        for (K key : keys) {
+            // Background work may share a fetch an interactive caller already queued, never the reverse
+            CompletableFuture<V> future = queue != interactive ? interactive.pending.get(key) : null;
+            if (future == null) {
+                future = queue.pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+                own.put(key, future);
+            }
+            futures.put(key, future);
+        }
+
+        while (!allDone(own.values())) {
+            queue.drainLock.lock();
+            try {
+                if (!allDone(own.values())) {
+                    drainBatch(queue, own.keySet());
+                }
+            } finally {
+                queue.drainLock.unlock();
+            }
+        }
+
+        Map<K, V> values = new HashMap<>();
+        futures.forEach((key, future) -> {
+            V value;
+            try {
+                value = future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            if (value != null) {
+                values.put(key, value);
+            }
+        });
+        return values;
+    }
+
+    public int pendingSize() {
+        return lanes.values().stream().mapToInt(queue -> queue.pending.size()).sum();
+    }
+
+    private static boolean allDone(Collection<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // One upstream call: the caller's own pending keys first, then other keys of the same lane
+    private void drainBatch(LaneQueue<K, V> queue, Set<K> own) {
+        Set<K> batch = new LinkedHashSet<>();
+        for (K key : own) {
+            if (batch.size() == maxBatchSize) {
+                break;
+            }
+            if (queue.pending.containsKey(key)) {
+                batch.add(key);
+            }
+        }
+        for (K key : queue.pending.keySet()) {
+            if (batch.size() == maxBatchSize) {
+                break;
+            }
+            batch.add(key);
+        }
+
+        Map<K, V> loaded;
+        try {
+            loaded = loader.apply(batch);
+        } catch (RuntimeException e) {
+            for (K key : batch) {
+                CompletableFuture<V> future = queue.pending.remove(key);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        for (K key : batch) {
+            CompletableFuture<V> future = queue.pending.remove(key);
+            if (future != null) {
+                future.complete(loaded.get(key));
+            }
+        }
+    }
+}
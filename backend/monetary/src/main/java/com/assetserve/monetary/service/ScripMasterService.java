@@ -1,8 +1,8 @@
 package com.assetserve.monetary.service;
 
 import com.assetserve.monetary.filter.Scrip;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import jakarta.annotation.PostConstruct; // Use javax.annotation for older Spring
 
 import java.io.BufferedReader;
 import java.io.InputStream;
@@ -10,15 +10,25 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
-public class ScripMasterService {
+@Slf4j
+public class ScripMasterService implements BootstrapTask {
+
+    private static final int MAX_RESULTS = 10;
 
     private List<Scrip> nseScripCache = new ArrayList<>();
+    // Rebuilt from scratch on each load and never mutated, so searches need no locking
+    private volatile SymbolSearchIndex<Scrip> searchIndex = SymbolSearchIndex.build(List.of(), s -> List.of());
+
+    @Override
+    public String getBootstrapName() {
+        return "scripMaster";
+    }
 
-    @PostConstruct
-    public void init() {
+    // Runs on the startup bootstrap instead of blocking bean creation
+    @Override
+    public void bootstrap() {
         loadScripsFromTextFile();
     }
 
@@ -28,7 +38,7 @@ public class ScripMasterService {
             InputStream inputStream = getClass().getClassLoader().getResourceAsStream("nse_scrips.txt");
 
             if (inputStream == null) {
-                System.err.println("File not found! Make sure nse_scrips.txt is in src/main/resources");
+                log.error("File not found! Make sure nse_scrips.txt is in src/main/resources");
                 return;
             }
 
@@ -50,22 +60,18 @@ public class ScripMasterService {
             }
 
             this.nseScripCache = tempBuffer;
-            System.out.println("Loaded " + nseScripCache.size() + " scrips successfully.");
+            this.searchIndex = SymbolSearchIndex.build(tempBuffer, s -> List.of(s.getName()));
+            log.info("Loaded {} scrips successfully.", nseScripCache.size());
 
         } catch (Exception e) {
-            System.err.println("Error loading scrips: " + e.getMessage());
+            log.error("Error loading scrips", e);
         }
     }
 
-    // Search function remains the same
+    // Best matches first: exact, prefix, substring, then near-misses for typos
     public List<Scrip> searchScrips(String query) {
         if (query == null || query.length() < 2) return List.of();
 
-        String q = query.toUpperCase();
-
-        return nseScripCache.stream()
-                .filter(s -> s.getName().contains(q)) // Search by clean name
-                .limit(10)
-                .collect(Collectors.toList());
+        return searchIndex.search(query, MAX_RESULTS);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,243 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.MarketTick;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a SmartStream WebSocket open with the feedToken from the AngelOne session,
+ * subscribes every instrument tracked by the {@link LivePriceBook} and publishes decoded
+ * ticks back into it. Connection upkeep, subscriptions and heartbeats run on the scheduler.
+ */
+@Component
+@Slf4j
+public class SmartStreamClient {
+
+    private static final int ACTION_SUBSCRIBE = 1;
+    private static final int SUBSCRIBE_BATCH_SIZE = 100;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final MarketDataService marketDataService;
+    private final LivePriceBook livePriceBook;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    private final boolean enabled;
+    private final boolean requireSession;
+    private final String streamUrl;
+
+    private volatile WebSocket webSocket;
+    private volatile boolean connecting;
+    private volatile long nextAttemptAt;
+    private volatile long backoffMillis = 1_000;
+
+    public SmartStreamClient(MarketDataService marketDataService,
+                             LivePriceBook livePriceBook,
+                             ObjectMapper objectMapper,
+                             @Value("${angelone.stream.enabled:true}") boolean enabled,
+                             @Value("${angelone.stream.require-session:true}") boolean requireSession,
+                             @Value("${angelone.stream.url:wss://smartapisocket.angelone.in/smart-stream}") String streamUrl) {
+        this.marketDataService = marketDataService;
+        this.livePriceBook = livePriceBook;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.requireSession = requireSession;
+        this.streamUrl = streamUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    // Connect (or reconnect) once a session exists, then push any new subscriptions
+    @Scheduled(fixedDelayString = "${angelone.stream.maintain-interval-ms:1000}")
+    public void maintainConnection() {
+        if (!enabled) {
+            return;
+        }
+        if (webSocket == null) {
+            connect();
+            return;
+        }
+        subscribePending();
+    }
+
+    // SmartStream drops idle sockets unless it sees a "ping" text frame every 30 seconds
+    @Scheduled(fixedRate = 25_000)
+    public void heartbeat() {
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            send(ws, "ping");
+        }
+    }
+
+    public boolean isConnected() {
+        return webSocket != null;
+    }
+
+    private void connect() {
+        if (connecting || System.currentTimeMillis() < nextAttemptAt
+                || (requireSession && marketDataService.getFeedToken() == null)) {
+            return;
+        }
+        connecting = true;
+
+        WebSocket.Builder builder = httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(10));
+        putHeader(builder, "Authorization", marketDataService.getJwtToken() != null
+                ? "Bearer " + marketDataService.getJwtToken() : null);
+        putHeader(builder, "x-api-key", marketDataService.getApiKey());
+        putHeader(builder, "x-client-code", marketDataService.getClientId());
+        putHeader(builder, "x-feed-token", marketDataService.getFeedToken());
+
+        builder.buildAsync(URI.create(streamUrl), new Listener())
+                .whenComplete((ws, error) -> {
+                    connecting = false;
+                    if (error != null) {
+                        // Back off exponentially so an unreachable feed does not spin
+                        nextAttemptAt = System.currentTimeMillis() + backoffMillis;
+                        backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+                        log.warn("SmartStream connection to {} failed: {}", streamUrl, error.getMessage());
+                        return;
+                    }
+                    backoffMillis = 1_000;
+                    log.info("SmartStream connected to {}", streamUrl);
+                    livePriceBook.resetSubscriptions();
+                    webSocket = ws;
+                    subscribePending();
+                });
+    }
+
+    private void subscribePending() {
+        WebSocket ws = webSocket;
+        Set<String> keys = livePriceBook.drainPending();
+        if (ws == null || keys.isEmpty()) {
+            return;
+        }
+
+        // exchangeType -> tokens, sent in batches to keep frames small
+        Map<Integer, List<String>> byExchange = new HashMap<>();
+        for (String key : keys) {
+            int separator = key.indexOf(':');
+            int exchangeType = SmartStreamCodec.exchangeType(key.substring(0, separator));
+            byExchange.computeIfAbsent(exchangeType, k -> new ArrayList<>()).add(key.substring(separator + 1));
+        }
+
+        byExchange.forEach((exchangeType, tokens) -> {
+            for (int from = 0; from < tokens.size(); from += SUBSCRIBE_BATCH_SIZE) {
+                List<String> batch = tokens.subList(from, Math.min(tokens.size(), from + SUBSCRIBE_BATCH_SIZE));
+                send(ws, buildSubscribeMessage(exchangeType, batch));
+            }
+        });
+        log.info("SmartStream subscribed {} instruments", keys.size());
+    }
+
+    private String buildSubscribeMessage(int exchangeType, List<String> tokens) {
+        Map<String, Object> tokenList = new LinkedHashMap<>();
+        tokenList.put("exchangeType", exchangeType);
+        tokenList.put("tokens", tokens);
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("mode", SmartStreamCodec.MODE_QUOTE);
+        params.put("tokenList", List.of(tokenList));
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("correlationID", "assetserve");
+        message.put("action", ACTION_SUBSCRIBE);
+        message.put("params", params);
+
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode SmartStream subscription", e);
+        }
+    }
+
+    // java.net.http.WebSocket allows one outstanding send at a time
+    private synchronized void send(WebSocket ws, String text) {
+        try {
+            ws.sendText(text, true).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("SmartStream send failed, dropping connection: {}", e.getMessage());
+            disconnected(ws);
+        }
+    }
+
+    private void disconnected(WebSocket ws) {
+        if (webSocket == ws && ws != null) {
+            webSocket = null;
+            ws.abort();
+            livePriceBook.resetSubscriptions();
+        }
+    }
+
+    private static void putHeader(WebSocket.Builder builder, String name, String value) {
+        if (value != null) {
+            builder.header(name, value);
+        }
+    }
+
+    private class Listener implements WebSocket.Listener {
+
+        // Binary frames may arrive in fragments; collect them until the last one
+        private ByteBuffer frame = ByteBuffer.allocate(SmartStreamCodec.QUOTE_PACKET_SIZE * 4);
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket ws, ByteBuffer data, boolean last) {
+            if (frame.remaining() < data.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(frame.capacity() + data.remaining());
+                frame.flip();
+                larger.put(frame);
+                frame = larger;
+            }
+            frame.put(data);
+
+            if (last) {
+                frame.flip();
+                MarketTick tick = SmartStreamCodec.decode(frame);
+                frame.clear();
+                if (tick != null && tick.getLtp() > 0) {
+                    tick.setReceivedAt(System.currentTimeMillis());
+                    livePriceBook.publish(tick);
+                }
+            }
+
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            // "pong" replies to our heartbeat; anything else is an error/ack message worth logging
+            if (!"pong".contentEquals(data)) {
+                log.debug("SmartStream text message: {}", data);
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            log.warn("SmartStream closed ({}): {}", statusCode, reason);
+            disconnected(ws);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            log.warn("SmartStream error: {}", error.getMessage());
+            disconnected(ws);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.MarketTick;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Encoder/decoder for AngelOne SmartStream v2 binary packets (little endian).
+ *
+ * <pre>
+ *   0      subscription mode (1 = LTP, 2 = QUOTE)
+ *   1      exchange type
+ *   2-26   token, NUL padded
+ *   27     sequence number          (int64)
+ *   35     exchange timestamp, ms   (int64)
+ *   43     LTP in paise             (int64)   -- end of LTP packet (51 bytes)
+ *   51     last traded quantity     (int64)
+ *   59     average traded price     (int64)
+ *   67     volume for the day       (int64)
+ *   75     total buy quantity       (double)
+ *   83     total sell quantity      (double)
+ *   91     open / 99 high / 107 low / 115 close, in paise (int64) -- end of QUOTE packet (123 bytes)
+ * </pre>
+ */
+public final class SmartStreamCodec {
+
+    public static final int MODE_LTP = 1;
+    public static final int MODE_QUOTE = 2;
+
+    public static final int LTP_PACKET_SIZE = 51;
+    public static final int QUOTE_PACKET_SIZE = 123;
+
+    private static final int TOKEN_OFFSET = 2;
+    private static final int TOKEN_LENGTH = 25;
+    private static final double PRICE_DIVISOR = 100.0d;
+
+    private static final Map<Integer, String> EXCHANGE_BY_TYPE = Map.of(
+            1, "NSE",
+            2, "NFO",
+            3, "BSE",
+            4, "BFO",
+            5, "MCX",
+            7, "NCDEX",
+            13, "CDS"
+    );
+
+    private SmartStreamCodec() {
+    }
+
+    public static int exchangeType(String exchange) {
+        for (Map.Entry<Integer, String> entry : EXCHANGE_BY_TYPE.entrySet()) {
+            if (entry.getValue().equals(exchange)) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalArgumentException("Unsupported SmartStream exchange: " + exchange);
+    }
+
+    public static boolean isSupportedExchange(String exchange) {
+        return EXCHANGE_BY_TYPE.containsValue(exchange);
+    }
+
+    // Returns null for packets that are too short or for unknown exchanges
+    public static MarketTick decode(ByteBuffer packet) {
+        ByteBuffer buf = packet.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int base = buf.position();
+        if (buf.remaining() < LTP_PACKET_SIZE) {
+            return null;
+        }
+
+        int mode = buf.get(base);
+        String exchange = EXCHANGE_BY_TYPE.get((int) buf.get(base + 1));
+        if (exchange == null) {
+            return null;
+        }
+
+        MarketTick.MarketTickBuilder tick = MarketTick.builder()
+                .mode(mode)
+                .exchange(exchange)
+                .token(readToken(buf, base + TOKEN_OFFSET))
+                .sequenceNumber(buf.getLong(base + 27))
+                .exchangeTimestamp(buf.getLong(base + 35))
+                .ltp(buf.getLong(base + 43) / PRICE_DIVISOR);
+
+        if (mode >= MODE_QUOTE && buf.remaining() >= QUOTE_PACKET_SIZE) {
+            tick.lastTradedQuantity(buf.getLong(base + 51))
+                    .averageTradedPrice(buf.getLong(base + 59) / PRICE_DIVISOR)
+                    .volume(buf.getLong(base + 67))
+                    .open(buf.getLong(base + 91) / PRICE_DIVISOR)
+                    .high(buf.getLong(base + 99) / PRICE_DIVISOR)
+                    .low(buf.getLong(base + 107) / PRICE_DIVISOR)
+                    .close(buf.getLong(base + 115) / PRICE_DIVISOR);
+        } else {
+            tick.mode(MODE_LTP);
+        }
+
+        return tick.build();
+    }
+
+    // Inverse of decode; used by the local stand-in server to emit ticks
+    public static ByteBuffer encode(MarketTick tick) {
+        boolean quote = tick.getMode() >= MODE_QUOTE;
+        ByteBuffer buf = ByteBuffer.allocate(quote ? QUOTE_PACKET_SIZE : LTP_PACKET_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        buf.put(0, (byte) (quote ? MODE_QUOTE : MODE_LTP));
+        buf.put(1, (byte) exchangeType(tick.getExchange()));
+        byte[] token = tick.getToken().getBytes(StandardCharsets.US_ASCII);
+        buf.put(TOKEN_OFFSET, token, 0, Math.min(token.length, TOKEN_LENGTH - 1));
+        buf.putLong(27, tick.getSequenceNumber());
+        buf.putLong(35, tick.getExchangeTimestamp());
+        buf.putLong(43, toPaise(tick.getLtp()));
+
+        if (quote) {
+            buf.putLong(51, tick.getLastTradedQuantity());
+            buf.putLong(59, toPaise(tick.getAverageTradedPrice()));
+            buf.putLong(67, tick.getVolume());
+            buf.putDouble(75, 0.0d);
+            buf.putDouble(83, 0.0d);
+            buf.putLong(91, toPaise(tick.getOpen()));
+            buf.putLong(99, toPaise(tick.getHigh()));
+            buf.putLong(107, toPaise(tick.getLow()));
+            buf.putLong(115, toPaise(tick.getClose()));
+        }
+
+        return buf;
+    }
+
+    private static String readToken(ByteBuffer buf, int offset) {
+        int length = 0;
+        while (length < TOKEN_LENGTH && buf.get(offset + length) != 0) {
+            length++;
+        }
+        byte[] token = new byte[length];
+        buf.get(offset, token);
+        return new String(token, StandardCharsets.US_ASCII);
+    }
+
+    private static long toPaise(double price) {
+        return Math.round(price * PRICE_DIVISOR);
+    }
+}
@@ -0,0 +1,172 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.MarketTick;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the SmartStream server, active with the "stream-stub" profile.
+ * It accepts the same subscribe/ping text frames and emits binary QUOTE packets, either
+ * replayed from a CSV recording (exchange,token,ltp,open,high,low,close,volume per line)
+ * or generated as a random walk for every subscribed token.
+ */
+@Component
+@Profile("stream-stub")
+@Slf4j
+public class SmartStreamStubServer extends TextWebSocketHandler {
+
+    private static final String[] EXCHANGE_BY_TYPE = {null, "NSE", "NFO", "BSE", "BFO", "MCX", null, "NCDEX"};
+
+    private final ObjectMapper objectMapper;
+    private final List<MarketTick> recording;
+
+    private final Map<WebSocketSession, Set<String>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Double> lastPrices = new ConcurrentHashMap<>();
+    private long sequence;
+    private int replayPosition;
+
+    public SmartStreamStubServer(ObjectMapper objectMapper,
+                                 @Value("${angelone.stream.stub.replay-file:}") String replayFile) {
+        this.objectMapper = objectMapper;
+        this.recording = loadRecording(replayFile);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        subscriptions.put(session, ConcurrentHashMap.newKeySet());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        String payload = message.getPayload();
+        if ("ping".equals(payload)) {
+            synchronized (session) {
+                session.sendMessage(new TextMessage("pong"));
+            }
+            return;
+        }
+
+        // {"action":1,"params":{"mode":2,"tokenList":[{"exchangeType":1,"tokens":["2885"]}]}}
+        JsonNode params = objectMapper.readTree(payload).path("params");
+        for (JsonNode tokenList : params.path("tokenList")) {
+            int exchangeType = tokenList.path("exchangeType").asInt();
+            String exchange = exchangeType < EXCHANGE_BY_TYPE.length ? EXCHANGE_BY_TYPE[exchangeType] : null;
+            if (exchange == null) {
+                continue;
+            }
+            for (JsonNode token : tokenList.path("tokens")) {
+                subscriptions.get(session).add(PriceCache.key(exchange, token.asText()));
+            }
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        subscriptions.remove(session);
+    }
+
+    @Scheduled(fixedRateString = "${angelone.stream.stub.tick-interval-ms:250}")
+    public void emitTicks() {
+        subscriptions.forEach((session, keys) -> {
+            for (String key : keys) {
+                MarketTick tick = recording.isEmpty() ? syntheticTick(key) : replayTick(key);
+                if (tick == null) {
+                    continue;
+                }
+                try {
+                    synchronized (session) {
+                        session.sendMessage(new BinaryMessage(SmartStreamCodec.encode(tick)));
+                    }
+                } catch (Exception e) {
+                    log.debug("Stub could not send tick to {}: {}", session.getId(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    // Random walk of +/- 0.1% around the previous price, seeded in the 100-3000 range
+    private MarketTick syntheticTick(String key) {
+        int separator = key.indexOf(':');
+        double previous = lastPrices.computeIfAbsent(key,
+                k -> ThreadLocalRandom.current().nextDouble(100, 3000));
+        double ltp = Math.max(0.05, previous * (1 + ThreadLocalRandom.current().nextDouble(-0.001, 0.001)));
+        lastPrices.put(key, ltp);
+
+        return MarketTick.builder()
+                .exchange(key.substring(0, separator))
+                .token(key.substring(separator + 1))
+                .mode(SmartStreamCodec.MODE_QUOTE)
+                .sequenceNumber(++sequence)
+                .exchangeTimestamp(System.currentTimeMillis())
+                .ltp(ltp)
+                .open(previous)
+                .high(Math.max(previous, ltp))
+                .low(Math.min(previous, ltp))
+                .close(previous)
+                .build();
+    }
+
+    // Next recorded tick for this instrument, cycling through the recording
+    private MarketTick replayTick(String key) {
+        for (int i = 0; i < recording.size(); i++) {
+            MarketTick recorded = recording.get((replayPosition + i) % recording.size());
+            if (key.equals(PriceCache.key(recorded.getExchange(), recorded.getToken()))) {
+                replayPosition = (replayPosition + i + 1) % recording.size();
+                return recorded.toBuilder()
+                        .sequenceNumber(++sequence)
+                        .exchangeTimestamp(System.currentTimeMillis())
+                        .build();
+            }
+        }
+        return null;
+    }
+
+    private List<MarketTick> loadRecording(String replayFile) {
+        if (replayFile == null || replayFile.isBlank()) {
+            return List.of();
+        }
+
+        List<MarketTick> ticks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(replayFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(",");
+                if (parts.length < 8 || line.startsWith("#")) {
+                    continue;
+                }
+                ticks.add(MarketTick.builder()
+                        .exchange(parts[0])
+                        .token(parts[1])
+                        .mode(SmartStreamCodec.MODE_QUOTE)
+                        .ltp(Double.parseDouble(parts[2]))
+                        .open(Double.parseDouble(parts[3]))
+                        .high(Double.parseDouble(parts[4]))
+                        .low(Double.parseDouble(parts[5]))
+                        .close(Double.parseDouble(parts[6]))
+                        .volume(Long.parseLong(parts[7]))
+                        .build());
+            }
+            log.info("SmartStream stub loaded {} recorded ticks from {}", ticks.size(), replayFile);
+        } catch (Exception e) {
+            log.warn("SmartStream stub could not read {}, using synthetic ticks: {}", replayFile, e.getMessage());
+        }
+        return ticks;
+    }
+}
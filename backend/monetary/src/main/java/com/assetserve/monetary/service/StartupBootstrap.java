@@ -0,0 +1,75 @@
+package com.assetserve.monetary.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every {@link BootstrapTask} in parallel on virtual threads as soon as the application has
+ * started, instead of one after another inside bean initialisation. Exposed as the "bootstrap"
+ * health indicator, which the readiness probe includes: the instance takes traffic only once all
+ * tasks have finished (a failed task is logged and does not block readiness).
+ */
+@Component("bootstrap")
+@Slf4j
+public class StartupBootstrap implements HealthIndicator {
+
+    private enum State { PENDING, RUNNING, DONE, FAILED }
+
+    private final List<BootstrapTask> tasks;
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+    public StartupBootstrap(List<BootstrapTask> tasks) {
+        this.tasks = tasks;
+        tasks.forEach(task -> states.put(task.getBootstrapName(), State.PENDING));
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (BootstrapTask task : tasks) {
+            executor.submit(() -> run(task));
+        }
+        executor.shutdown();
+    }
+
+    public boolean isComplete() {
+        return states.values().stream().allMatch(state -> state == State.DONE || state == State.FAILED);
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = isComplete() ? Health.up() : Health.outOfService();
+        states.forEach((name, state) -> health.withDetail(name, durations.containsKey(name)
+                ? state + " in " + durations.get(name) + " ms" : state.toString()));
+        return health.build();
+    }
+
+    private void run(BootstrapTask task) {
+        String name = task.getBootstrapName();
+        long started = System.currentTimeMillis();
+        states.put(name, State.RUNNING);
+        try {
+            task.bootstrap();
+            states.put(name, State.DONE);
+        } catch (Exception e) {
+            log.error("Bootstrap task {} failed", name, e);
+            states.put(name, State.FAILED);
+        } finally {
+            durations.put(name, System.currentTimeMillis() - started);
+            log.info("Bootstrap task {} finished in {} ms", name, durations.get(name));
+        }
+        if (isComplete()) {
+            log.info("Bootstrap complete; instance ready for traffic");
+        }
+    }
+}
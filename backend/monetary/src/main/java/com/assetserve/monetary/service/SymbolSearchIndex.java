@@ -0,0 +1,239 @@
+package com.assetserve.monetary.service;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Immutable search-as-you-type index over instruments, built once per load.
+ * Keys are kept in a sorted array for prefix lookups and in a trigram index for substring and
+ * typo-tolerant lookups. Results are ranked exact > prefix > substring > fuzzy (bounded edit
+ * distance), shorter keys first within a tier, and the best key of each item counts.
+ */
+public final class SymbolSearchIndex<T> {
+
+    private static final int EXACT = 4_000;
+    private static final int PREFIX = 3_000;
+    private static final int SUBSTRING = 2_000;
+    private static final int FUZZY = 1_000;
+
+    private final List<T> items;
+    private final String[] keys;        // normalized keys, sorted
+    private final int[] keyItem;        // item index of each key
+    private final Map<Long, int[]> trigrams;
+
+    private SymbolSearchIndex(List<T> items, String[] keys, int[] keyItem, Map<Long, int[]> trigrams) {
+        this.items = items;
+        this.keys = keys;
+        this.keyItem = keyItem;
+        this.trigrams = trigrams;
+    }
+
+    public static <T> SymbolSearchIndex<T> build(List<T> items, Function<T, Collection<String>> keyExtractor) {
+        List<T> frozen = List.copyOf(items);
+
+        // (key, item) pairs sorted by key
+        List<Map.Entry<String, Integer>> pairs = new ArrayList<>();
+        for (int i = 0; i < frozen.size(); i++) {
+            for (String key : keyExtractor.apply(frozen.get(i))) {
+                String normalized = normalize(key);
+                if (!normalized.isEmpty()) {
+                    pairs.add(Map.entry(normalized, i));
+                }
+            }
+        }
+        pairs.sort(Map.Entry.comparingByKey());
+
+        String[] keys = new String[pairs.size()];
+        int[] keyItem = new int[pairs.size()];
+        Map<Long, List<Integer>> postings = new HashMap<>();
+        for (int k = 0; k < pairs.size(); k++) {
+            keys[k] = pairs.get(k).getKey();
+            keyItem[k] = pairs.get(k).getValue();
+            for (int p = 0; p + 3 <= keys[k].length(); p++) {
+                List<Integer> list = postings.computeIfAbsent(trigram(keys[k], p), t -> new ArrayList<>());
+                // Keys are visited in order, so checking the tail is enough to dedupe
+                if (list.isEmpty() || list.get(list.size() - 1) != k) {
+                    list.add(k);
+                }
+            }
+        }
+
+        Map<Long, int[]> trigrams = new HashMap<>(postings.size() * 2);
+        postings.forEach((gram, list) -> trigrams.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+        return new SymbolSearchIndex<>(frozen, keys, keyItem, trigrams);
+    }
+
+    public List<T> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // item index -> best score so far
+        Map<Integer, Integer> scores = new HashMap<>();
+
+        // Prefix (and exact) matches are one contiguous run of the sorted keys
+        for (int k = lowerBound(q); k < keys.length && keys[k].startsWith(q); k++) {
+            int score = keys[k].length() == q.length() ? EXACT : PREFIX - (keys[k].length() - q.length());
+            scores.merge(keyItem[k], score, Math::max);
+        }
+
+        if (q.length() >= 3) {
+            // Substring: verify the candidates of the rarest trigram
+            int[] rarest = null;
+            for (int p = 0; p + 3 <= q.length(); p++) {
+                int[] list = trigrams.get(trigram(q, p));
+                if (list == null) {
+                    rarest = null;
+                    break;
+                }
+                if (rarest == null || list.length < rarest.length) {
+                    rarest = list;
+                }
+            }
+            if (rarest != null) {
+                for (int k : rarest) {
+                    int at = keys[k].indexOf(q);
+                    if (at > 0) {
+                        scores.merge(keyItem[k], SUBSTRING - at - (keys[k].length() - q.length()), Math::max);
+                    }
+                }
+            }
+
+            // Typos only matter when the exact tiers did not fill the page
+            if (scores.size() < limit) {
+                addFuzzyMatches(q, scores);
+            }
+        }
+
+        return topK(scores, limit);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    private void addFuzzyMatches(String q, Map<Integer, Integer> scores) {
+        int maxDistance = q.length() <= 5 ? 1 : 2;
+
+        // Keys sharing at least one trigram with the query are the only plausible candidates
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (int p = 0; p + 3 <= q.length(); p++) {
+            int[] list = trigrams.get(trigram(q, p));
+            if (list != null) {
+                for (int k : list) {
+                    shared.merge(k, 1, Integer::sum);
+                }
+            }
+        }
+        int required = Math.max(1, (q.length() - 2) - 3 * maxDistance);
+
+        for (Map.Entry<Integer, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() < required) {
+                continue;
+            }
+            String key = keys[candidate.getKey()];
+            // Compare against the whole key and against its prefix of the query's length (still typing)
+            int distance = boundedDistance(q, key, maxDistance);
+            if (key.length() > q.length()) {
+                distance = Math.min(distance, boundedDistance(q, key.substring(0, q.length()), maxDistance));
+            }
+            if (distance <= maxDistance) {
+                int score = FUZZY - 100 * distance - Math.abs(key.length() - q.length());
+                scores.merge(keyItem[candidate.getKey()], score, Math::max);
+            }
+        }
+    }
+
+    private List<T> topK(Map<Integer, Integer> scores, int limit) {
+        // Min-heap of the best `limit` items: lowest score (then later in load order) is evicted first
+        Comparator<Map.Entry<Integer, Integer>> order = Map.Entry.<Integer, Integer>comparingByValue()
+                .thenComparing(e -> -e.getKey());
+        PriorityQueue<Map.Entry<Integer, Integer>> heap = new PriorityQueue<>(limit + 1, order);
+        for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        T[] ranked = newArray(heap.size());
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = items.get(heap.poll().getKey());
+        }
+        return Arrays.asList(ranked);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T[] newArray(int size) {
+        return (T[]) new Object[size];
+    }
+
+    private int lowerBound(String q) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(q) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Optimal string alignment distance (adjacent swaps count as one edit), or max + 1 once it exceeds max
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static long trigram(String s, int at) {
+        return ((long) s.charAt(at) << 32) | ((long) s.charAt(at + 1) << 16) | s.charAt(at + 2);
+    }
+
+    // Upper-case letters and digits only, so "bajaj auto" finds BAJAJ-AUTO
+    static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = Character.toUpperCase(s.charAt(i));
+            if (Character.isLetterOrDigit(c) || c == '&') {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+}
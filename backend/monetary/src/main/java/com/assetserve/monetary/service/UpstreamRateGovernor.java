@@ -0,0 +1,146 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.exception.UpstreamThrottledException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Central rate limiter for AngelOne traffic: a token bucket per {@link AngelOneEndpoint} sized
+ * from {@code angelone.rate.<key>.per-second}. Each bucket serves two lanes; background callers
+ * (scheduled jobs, wrapped in {@link #inBackground}) only get a permit when no interactive caller
+ * is waiting for the same endpoint. Every outgoing request takes a permit in the RestTemplate
+ * interceptor, so nothing can bypass the budget.
+ */
+@Component
+@Slf4j
+public class UpstreamRateGovernor {
+
+    public enum Lane {
+        INTERACTIVE, BACKGROUND
+    }
+
+    private static final ThreadLocal<Lane> CURRENT_LANE = ThreadLocal.withInitial(() -> Lane.INTERACTIVE);
+
+    private static final class Bucket {
+        private final double ratePerMilli;
+        private final double burst;
+        private double tokens;
+        private long refilledAt = System.currentTimeMillis();
+
+        // Per lane: callers waiting now, permits granted, total and max wait
+        private final int[] waiting = new int[Lane.values().length];
+        private final long[] granted = new long[Lane.values().length];
+        private final long[] waitedMillis = new long[Lane.values().length];
+        private final long[] maxWaitMillis = new long[Lane.values().length];
+        private long rejected;
+
+        private Bucket(int perSecond) {
+            this.ratePerMilli = perSecond / 1000.0;
+            this.burst = Math.max(1, perSecond);
+            this.tokens = burst;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerMilli);
+            refilledAt = now;
+        }
+    }
+
+    private final Map<AngelOneEndpoint, Bucket> buckets = new EnumMap<>(AngelOneEndpoint.class);
+    private final long interactiveMaxWaitMillis;
+    private final long backgroundMaxWaitMillis;
+
+    public UpstreamRateGovernor(Environment environment) {
+        for (AngelOneEndpoint endpoint : AngelOneEndpoint.values()) {
+            int perSecond = environment.getProperty("angelone.rate." + endpoint.getPropertyKey() + ".per-second",
+                    Integer.class, endpoint.getRequestsPerSecond());
+            buckets.put(endpoint, new Bucket(perSecond));
+        }
+        this.interactiveMaxWaitMillis = environment.getProperty("angelone.rate.interactive-max-wait-ms", Long.class, 3_000L);
+        this.backgroundMaxWaitMillis = environment.getProperty("angelone.rate.background-max-wait-ms", Long.class, 60_000L);
+    }
+
+    // Run work whose upstream calls should yield to interactive requests
+    public <T> T inBackground(Supplier<T> work) {
+        Lane previous = CURRENT_LANE.get();
+        CURRENT_LANE.set(Lane.BACKGROUND);
+        try {
+            return work.get();
+        } finally {
+            CURRENT_LANE.set(previous);
+        }
+    }
+
+    public void inBackground(Runnable work) {
+        inBackground(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static Lane currentLane() {
+        return CURRENT_LANE.get();
+    }
+
+    // Block until the endpoint's budget allows one more request from the current lane;
+    // throws UpstreamThrottledException once the lane's maximum wait has passed
+    public void acquire(AngelOneEndpoint endpoint) throws InterruptedException {
+        Lane lane = CURRENT_LANE.get();
+        Bucket bucket = buckets.get(endpoint);
+        long started = System.currentTimeMillis();
+        long deadline = started + (lane == Lane.INTERACTIVE ? interactiveMaxWaitMillis : backgroundMaxWaitMillis);
+
+        synchronized (bucket) {
+            bucket.waiting[lane.ordinal()]++;
+            try {
+                while (true) {
+                    long now = System.currentTimeMillis();
+                    bucket.refill(now);
+                    boolean yieldToInteractive = lane == Lane.BACKGROUND && bucket.waiting[Lane.INTERACTIVE.ordinal()] > 0;
+                    if (bucket.tokens >= 1 && !yieldToInteractive) {
+                        bucket.tokens -= 1;
+                        long waited = now - started;
+                        bucket.granted[lane.ordinal()]++;
+                        bucket.waitedMillis[lane.ordinal()] += waited;
+                        bucket.maxWaitMillis[lane.ordinal()] = Math.max(bucket.maxWaitMillis[lane.ordinal()], waited);
+                        return;
+                    }
+                    if (now >= deadline) {
+                        bucket.rejected++;
+                        throw new UpstreamThrottledException(endpoint, now - started);
+                    }
+                    long untilToken = (long) Math.ceil((1 - bucket.tokens) / bucket.ratePerMilli);
+                    bucket.wait(Math.max(1, Math.min(deadline - now, Math.max(untilToken, 5))));
+                }
+            } finally {
+                bucket.waiting[lane.ordinal()]--;
+                bucket.notifyAll();
+            }
+        }
+    }
+
+    // Queue depth, permits granted, total and max wait (ms) per lane, and rejections, for one
+    // endpoint; published as meters by MetricsConfig
+    public Map<String, Long> stats(AngelOneEndpoint endpoint) {
+        Bucket bucket = buckets.get(endpoint);
+        Map<String, Long> values = new LinkedHashMap<>();
+        synchronized (bucket) {
+            for (Lane lane : Lane.values()) {
+                String prefix = lane.name().toLowerCase() + ".";
+                int i = lane.ordinal();
+                values.put(prefix + "queued", (long) bucket.waiting[i]);
+                values.put(prefix + "granted", bucket.granted[i]);
+                values.put(prefix + "waitedMs", bucket.waitedMillis[i]);
+                values.put(prefix + "maxWaitMs", bucket.maxWaitMillis[i]);
+            }
+            values.put("rejected", bucket.rejected);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,85 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.JwtPrincipal;
+import com.assetserve.monetary.model.User;
+import com.assetserve.monetary.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maps a user's email to their id without a query per call. Inside a request the id comes
+ * straight from the verified JWT; elsewhere (streams, scheduled work) a bounded email -> id
+ * near-cache answers, falling back to an id-only query on a miss. Email and id never change
+ * for a user, so entries stay valid until evicted.
+ */
+@Service
+public class UserIdentityService {
+
+    private final UserRepository userRepository;
+    private final int cacheSize;
+    private final Map<String, Long> userIds = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserIdentityService(UserRepository userRepository,
+                               @Value("${users.identity-cache-size:10000}") int cacheSize) {
+        this.userRepository = userRepository;
+        this.cacheSize = cacheSize;
+    }
+
+    public Long resolveUserId(String email) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal
+                && principal.getEmail().equals(email)) {
+            return principal.getUserId();
+        }
+
+        Long userId = userIds.get(email);
+        if (userId != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            userId = userRepository.findIdByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            remember(email, userId);
+        }
+        return userId;
+    }
+
+    public String currentEmail() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    public Long currentUserId() {
+        return resolveUserId(currentEmail());
+    }
+
+    // An unloaded proxy, enough to set a foreign key without selecting the user row
+    public User reference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
+    // Near-cache counters, same shape as PriceCache.stats()
+    public Map<String, Long> cacheStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("size", (long) userIds.size());
+        return stats;
+    }
+
+    public void remember(String email, Long userId) {
+        if (userIds.size() >= cacheSize) {
+            userIds.clear();
+        }
+        userIds.put(email, userId);
+    }
+}
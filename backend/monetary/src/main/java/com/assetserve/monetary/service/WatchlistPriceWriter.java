@@ -0,0 +1,75 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.repository.UserWatchListRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind for the last traded price stored on watchlist rows. Reads record the prices they
+ * fetched and return immediately; a scheduled flush writes only the newest price per token, with
+ * one bulk UPDATE per token covering every user's row for it.
+ */
+@Service
+@Slf4j
+public class WatchlistPriceWriter {
+
+    private final UserWatchListRepository userWatchListRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // symbolToken -> latest price not yet written; later records overwrite earlier ones
+    private final ConcurrentHashMap<String, Double> pending = new ConcurrentHashMap<>();
+
+    public WatchlistPriceWriter(UserWatchListRepository userWatchListRepository,
+                                TransactionTemplate transactionTemplate) {
+        this.userWatchListRepository = userWatchListRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Takes "EXCHANGE:token" -> LTP, as returned by MarketDataService.getLtps; watchlist rows are NSE only
+    public void record(Map<String, Double> ltps) {
+        String prefix = PriceCache.key(WatchlistService.WATCHLIST_EXCHANGE, "");
+        ltps.forEach((key, ltp) -> {
+            if (ltp != null && key.startsWith(prefix)) {
+                pending.put(key.substring(prefix.length()), ltp);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${watchlist.ltp-flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Take a snapshot, removing only the values we are about to write
+        Map<String, Double> batch = new HashMap<>(pending);
+        batch.forEach(pending::remove);
+
+        try {
+            int rows = transactionTemplate.execute(status -> {
+                int updated = 0;
+                for (Map.Entry<String, Double> entry : batch.entrySet()) {
+                    updated += userWatchListRepository.updateCurrentLtp(entry.getKey(), entry.getValue());
+                }
+                return updated;
+            });
+            log.debug("Wrote watchlist LTPs for {} tokens ({} rows)", batch.size(), rows);
+        } catch (Exception e) {
+            // Put the prices back unless a newer one arrived meanwhile
+            batch.forEach(pending::putIfAbsent);
+            log.warn("Failed to write watchlist LTPs, retrying next cycle: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -3,46 +3,43 @@ package com.assetserve.monetary.service;
 
 import com.assetserve.monetary.dto.WatchlistResponse;
 import com.assetserve.monetary.dto.WatchlistRequest;
-import com.assetserve.monetary.model.User;
 import com.assetserve.monetary.model.UserWatchlist;
-import com.assetserve.monetary.repository.UserRepository;
 import com.assetserve.monetary.repository.UserWatchListRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class WatchlistService {
     private final UserWatchListRepository userWatchListRepository;
-    private final UserRepository userRepository;
+    private final UserIdentityService userIdentityService;
     private final MarketDataService marketDataService;
+    private final WatchlistPriceWriter watchlistPriceWriter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Watchlist entries only carry a token, and all of them are NSE cash scrips
+    static final String WATCHLIST_EXCHANGE = "NSE";
 
-    //Get current authenticated user
-    private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(()-> new RuntimeException("User not found"));
-    }
     @Transactional
     public WatchlistResponse addToWatchList(WatchlistRequest  watchlistRequest) {
-        User user = getCurrentUser();
+        Long userId = userIdentityService.currentUserId();
 
         //Check if already exists
-        if(userWatchListRepository.existsByUserIdAndSymbolToken(user.getId(), watchlistRequest.getSymbolToken())) {
+        if(userWatchListRepository.existsByUserIdAndSymbolToken(userId, watchlistRequest.getSymbolToken())) {
             throw new RuntimeException("Symbol token already exists in watchlist");
         }
 
         Double currentLtp = fetchCurrentPrice(watchlistRequest.getSymbolToken());
 
         UserWatchlist watchList = UserWatchlist.builder()
-                .user(user)
+                .user(userIdentityService.reference(userId))
                 .symbolToken(watchlistRequest.getSymbolToken())
                 .symbolName(watchlistRequest.getSymbolName())
                 .currentLtp(currentLtp)
@@ -51,41 +48,58 @@ public class WatchlistService {
                 .build();
 
         UserWatchlist saved =  userWatchListRepository.save(watchList);
+        eventPublisher.publishEvent(new HoldingsChangedEvent(userIdentityService.currentEmail()));
 
         return mapToResponse(saved);
     }
 
     public List<WatchlistResponse> getUserWatchlist() {
-        User user = getCurrentUser();
-        List<UserWatchlist> watchlists = userWatchListRepository.findByUserId(user.getId());
+        List<UserWatchlist> watchlists = userWatchListRepository.findByUserId(userIdentityService.currentUserId());
+
+        // Fetch prices for all symbols in one batched quote call
+        Map<String, Double> ltps = fetchCurrentPrices(watchlists.stream()
+                .map(UserWatchlist::getSymbolToken)
+                .collect(Collectors.toSet()));
+
+        // Stored LTPs are refreshed in the background, not with one save per row here
+        watchlistPriceWriter.record(ltps);
+        return priceWatchlist(watchlists, ltps);
+    }
+
+    // Watchlist rows for a user, for callers outside the request's security context
+    public List<UserWatchlist> findWatchlist(String userEmail) {
+        return userWatchListRepository.findByUserId(userIdentityService.resolveUserId(userEmail));
+    }
 
-        // Update current prices for all symbols
+    // Map already-loaded entries to responses using an "EXCHANGE:token" -> LTP map (no DB writes)
+    public List<WatchlistResponse> priceWatchlist(List<UserWatchlist> watchlists, Map<String, Double> ltps) {
         return watchlists.stream()
                 .map(w -> {
-                    Double currentLTP = fetchCurrentPrice(w.getSymbolToken());
-                    w.setCurrentLtp(currentLTP);
-                    userWatchListRepository.save(w); // Update LTP in DB
-                    return mapToResponse(w);
+                    WatchlistResponse response = mapToResponse(w);
+                    response.setLtp(ltps.getOrDefault(PriceCache.key(WATCHLIST_EXCHANGE, w.getSymbolToken()), w.getCurrentLtp()));
+                    return response;
                 })
                 .collect(Collectors.toList());
     }
 
     @Transactional
     public void removeFromWatchlist(String symbolToken) {
-        User user = getCurrentUser();
-        userWatchListRepository.deleteByUserIdAndSymbolToken(user.getId(), symbolToken);
+        userWatchListRepository.deleteByUserIdAndSymbolToken(userIdentityService.currentUserId(), symbolToken);
+        eventPublisher.publishEvent(new HoldingsChangedEvent(userIdentityService.currentEmail()));
     }
 
     @Transactional
     public WatchlistResponse updateWatchlistItem(String symbolToken, WatchlistRequest request) {
-        User user = getCurrentUser();
-
         UserWatchlist watchlist = userWatchListRepository
-                .findByUserIdAndSymbolToken(user.getId(), symbolToken)
+                .findByUserIdAndSymbolToken(userIdentityService.currentUserId(), symbolToken)
                 .orElseThrow(() -> new RuntimeException("Watchlist item not found"));
 
         Double targetPrice = request.getTargetPrice();
         if (targetPrice != null) {
+            // A new target arms its price alert again
+            if (!targetPrice.equals(watchlist.getProjectedBuyPrice())) {
+                watchlist.setTargetFiredAt(null);
+            }
             watchlist.setProjectedBuyPrice(request.getTargetPrice());
         }
         if (request.getNotes() != null) {
@@ -97,6 +111,7 @@ public class WatchlistService {
         watchlist.setCurrentLtp(currentLTP);
 
         UserWatchlist updated = userWatchListRepository.save(watchlist);
+        eventPublisher.publishEvent(new HoldingsChangedEvent(userIdentityService.currentEmail()));
         return mapToResponse(updated);
     }
 
@@ -104,33 +119,21 @@ public class WatchlistService {
      * Fetch current price using the MarketDataService directly
      */
     private Double fetchCurrentPrice(String symbolToken) {
-        try {
-            LocalDate now = LocalDate.now();
-            String toDate = now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + " 15:30";
-
-            LocalDate fromDate = now.minusDays(1);
-            String fromDateStr = fromDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + " 09:15";
-
-            // Call the MarketDataService directly instead of making HTTP request
-            var priceData = marketDataService.getPriceData(
-                    "NSE",
-                    symbolToken,
-                    "ONE_MINUTE",
-                    fromDateStr,
-                    toDate
-            );
-
-            if (priceData != null && !priceData.isEmpty()) {
-                // Get the most recent price (last item in the list)
-                var latestData = priceData.get(priceData.size() - 1);
-                return latestData.getClose();
-            }
-
-            throw new RuntimeException("No price data available");
+        Double ltp = fetchCurrentPrices(Set.of(symbolToken)).get(PriceCache.key(WATCHLIST_EXCHANGE, symbolToken));
+        if (ltp == null) {
+            throw new RuntimeException("Failed to fetch current price: No price data available");
+        }
+        return ltp;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch current price: " + e.getMessage());
+    /**
+     * Fetch LTPs for several NSE tokens with a single batched quote request
+     */
+    private Map<String, Double> fetchCurrentPrices(Set<String> symbolTokens) {
+        if (symbolTokens.isEmpty()) {
+            return Map.of();
         }
+        return marketDataService.getLtps(Map.of(WATCHLIST_EXCHANGE, symbolTokens));
     }
 
     private WatchlistResponse mapToResponse(UserWatchlist watchlist) {
@@ -0,0 +1,75 @@
+package com.assetserve.monetary.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleTimestampsTests {
+
+	private static final ZoneOffset IST = ZoneOffset.ofHoursMinutes(5, 30);
+	private static final DateTimeFormatter ANGEL_ONE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssxxx");
+
+	@Test
+	void parsesLikeJavaTime() {
+		for (String text : new String[] {
+				"2024-01-05T09:15:00+05:30",
+				"2024-02-29T15:29:59+05:30",    // leap day
+				"2023-12-31T23:59:59+05:30",    // year boundary
+				"2024-01-01T00:00:00+05:30",    // midnight IST is the previous day in UTC
+				"2024-03-31T05:29:00+05:30",
+				"2000-02-29T12:00:00+00:00",    // leap century
+				"1970-01-01T00:00:00+00:00",
+				"1969-12-31T23:00:00-01:00",
+				"2100-03-01T00:00:00+14:00" }) {
+			assertEquals(OffsetDateTime.parse(text).toInstant().toEpochMilli(), parse(text), text);
+		}
+	}
+
+	@Test
+	void fallsBackToJavaTimeForOtherShapes() {
+		assertEquals(OffsetDateTime.parse("2024-01-05T03:45:00Z").toInstant().toEpochMilli(), parse("2024-01-05T03:45:00Z"));
+		assertEquals(OffsetDateTime.parse("2024-01-05T09:15:00.500+05:30").toInstant().toEpochMilli(),
+				parse("2024-01-05T09:15:00.500+05:30"));
+		assertThrows(IllegalArgumentException.class, () -> parse("2024-01-05T09:1x:00+05:30"));
+	}
+
+	@Test
+	void formatsInIstAndRoundTrips() {
+		// Every day across two leap years and the 2100 non-leap century, at times either side of the IST offset
+		for (LocalDate date = LocalDate.of(2023, 12, 1); date.isBefore(LocalDate.of(2025, 3, 1)); date = date.plusDays(1)) {
+			checkRoundTrip(date.atTime(0, 0).atOffset(IST));
+			checkRoundTrip(date.atTime(5, 29, 59).atOffset(IST));
+			checkRoundTrip(date.atTime(23, 59, 59).atOffset(IST));
+		}
+		checkRoundTrip(OffsetDateTime.of(2100, 2, 28, 23, 0, 0, 0, IST));
+		checkRoundTrip(OffsetDateTime.of(2100, 3, 1, 0, 0, 0, 0, IST));
+		checkRoundTrip(OffsetDateTime.of(1969, 12, 31, 18, 29, 59, 0, IST));
+	}
+
+	@Test
+	void daysFromCivilMatchesEpochDay() {
+		for (LocalDate date = LocalDate.of(1899, 12, 25); date.isBefore(LocalDate.of(2101, 1, 10)); date = date.plusDays(1)) {
+			assertEquals(date.toEpochDay(), CandleTimestamps.daysFromCivil(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+		}
+	}
+
+	private static void checkRoundTrip(OffsetDateTime time) {
+		long millis = time.toInstant().toEpochMilli();
+		char[] out = new char[CandleTimestamps.LENGTH + 2];
+		CandleTimestamps.format(millis, out, 1);
+		String text = new String(out, 1, CandleTimestamps.LENGTH);
+
+		assertEquals(ANGEL_ONE.format(time.withOffsetSameInstant(IST)), text);
+		assertEquals(millis, CandleTimestamps.parse(out, 1, CandleTimestamps.LENGTH));
+	}
+
+	private static long parse(String text) {
+		char[] padded = ("  " + text + " ").toCharArray();
+		return CandleTimestamps.parse(padded, 2, text.length());
+	}
+}
@@ -0,0 +1,48 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleDownsamplerTests {
+
+	private static final long MINUTE = 60_000;
+
+	@Test
+	void keepsEndpointsAndSpikesWithinTheBudget() {
+		ArrayCandleSeries flat = new ArrayCandleSeries();
+		for (int m = 0; m < 10_000; m++) {
+			double close = m == 4_321 ? 500 : m == 7_000 ? 10 : 100;
+			flat.add(m * MINUTE, 100, Math.max(100, close), Math.min(100, close), close, 1);
+		}
+
+		CandleSeries sampled = CandleDownsampler.lttb(flat, 200);
+		assertEquals(200, sampled.size());
+		assertEquals(0, sampled.getTimestamp(0));
+		assertEquals(9_999 * MINUTE, sampled.getTimestamp(199));
+
+		boolean sawHigh = false;
+		boolean sawLow = false;
+		for (int i = 0; i < sampled.size(); i++) {
+			if (i > 0) {
+				assertTrue(sampled.getTimestamp(i) > sampled.getTimestamp(i - 1));
+			}
+			sawHigh |= sampled.getClose(i) == 500;
+			sawLow |= sampled.getClose(i) == 10;
+		}
+		assertTrue(sawHigh);
+		assertTrue(sawLow);
+	}
+
+	@Test
+	void shortSeriesAreReturnedAsIs() {
+		ArrayCandleSeries candles = new ArrayCandleSeries();
+		for (int m = 0; m < 50; m++) {
+			candles.add(m * MINUTE, 1, 1, 1, 1, 1);
+		}
+		assertSame(candles, CandleDownsampler.lttb(candles, 50));
+		assertThrows(IllegalArgumentException.class, () -> CandleDownsampler.lttb(candles, 2));
+	}
+}
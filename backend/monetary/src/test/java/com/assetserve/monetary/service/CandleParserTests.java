@@ -0,0 +1,61 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleParserTests {
+
+	private final CandleParser parser = new CandleParser(new ObjectMapper());
+
+	@Test
+	void readsCandlesIntoColumns() throws Exception {
+		ArrayCandleSeries series = parse("""
+				{"status":true,"message":"SUCCESS","errorcode":"","data":[
+				  ["2024-01-05T09:15:00+05:30",2450.5,2461,2448.25,2460.1,12034],
+				  ["2024-01-05T09:16:00+05:30",2460.1,2462.0,2455.0,2456.35,8800,"extra",[1]]
+				]}""");
+
+		assertEquals(2, series.size());
+		assertEquals(OffsetDateTime.parse("2024-01-05T09:16:00+05:30").toInstant().toEpochMilli(), series.getTimestamp(1));
+		assertEquals(2450.5, series.getOpen(0));
+		assertEquals(2461.0, series.getHigh(0));
+		assertEquals(2448.25, series.getLow(0));
+		assertEquals(2456.35, series.getClose(1));
+		assertEquals(8800, series.getVolume(1));
+	}
+
+	@Test
+	void dropsOnlyTheMalformedCandles() throws Exception {
+		ArrayCandleSeries series = parse("""
+				{"data":[
+				  ["2024-01-05T09:15:00+05:30",1,2,0.5,1.5,10],
+				  ["2024-01-05T09:16:00+05:30",1,null,0.5,1.5,10],
+				  [null,1,2,0.5,1.5,10],
+				  ["not a time",1,2,0.5,1.5,10],
+				  ["2024-01-05T09:18:00+05:30",1,2],
+				  [],
+				  ["2024-01-05T09:19:00+05:30",1,2,0.5,1.75,30]
+				],"status":true}""");
+
+		assertEquals(2, series.size());
+		assertEquals(1.5, series.getClose(0));
+		assertEquals(1.75, series.getClose(1));
+		assertEquals(30, series.getVolume(1));
+	}
+
+	@Test
+	void errorStatusIsNotAnEmptySeries() throws Exception {
+		assertNull(parse("{\"status\":false,\"message\":\"Invalid token\",\"data\":null}"));
+	}
+
+	private ArrayCandleSeries parse(String json) throws Exception {
+		return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,44 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleInterval;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleResamplerTests {
+
+	private static final long MINUTE = 60_000;
+	private static final long SESSION_OPEN = ZonedDateTime.of(2024, 1, 5, 9, 15, 0, 0, ZoneId.of("Asia/Kolkata"))
+			.toInstant().toEpochMilli();
+
+	@Test
+	void oneMinuteCandlesRollUpIntoSessionAlignedBuckets() {
+		ArrayCandleSeries minutes = new ArrayCandleSeries();
+		for (int m = 0; m < 75; m++) {
+			minutes.add(SESSION_OPEN + m * MINUTE, 100 + m, 101 + m, 99 + m, 100.5 + m, 10);
+		}
+
+		ArrayCandleSeries quarterHours = CandleResampler.resample(minutes, CandleInterval.FIFTEEN_MINUTE);
+		assertEquals(5, quarterHours.size());
+		assertEquals(SESSION_OPEN + 15 * MINUTE, quarterHours.getTimestamp(1));
+		assertEquals(115, quarterHours.getOpen(1));
+		assertEquals(130, quarterHours.getHigh(1));
+		assertEquals(114, quarterHours.getLow(1));
+		assertEquals(129.5, quarterHours.getClose(1));
+		assertEquals(150, quarterHours.getVolume(1));
+
+		// Hourly candles start at 09:15 and 10:15, not on the clock hour
+		ArrayCandleSeries hours = CandleResampler.resample(minutes, CandleInterval.ONE_HOUR);
+		assertEquals(2, hours.size());
+		assertEquals(SESSION_OPEN + 60 * MINUTE, hours.getTimestamp(1));
+
+		ArrayCandleSeries days = CandleResampler.resample(minutes, CandleInterval.ONE_DAY);
+		assertEquals(1, days.size());
+		assertEquals(SESSION_OPEN - (9 * 60 + 15) * MINUTE, days.getTimestamp(0));
+		assertEquals(750, days.getVolume(0));
+	}
+}
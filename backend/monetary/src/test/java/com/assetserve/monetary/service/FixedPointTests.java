@@ -0,0 +1,31 @@
+package com.assetserve.monetary.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTests {
+
+	@Test
+	void multipliesLikeAScaleFourColumn() {
+		long price = FixedPoint.of(2456.35);
+		long quantity = FixedPoint.of(new BigDecimal("12.5"));
+
+		assertEquals(new BigDecimal("30704.3750"), FixedPoint.toBigDecimal(FixedPoint.multiply(price, quantity)));
+		assertEquals(new BigDecimal("0.0001"), FixedPoint.toBigDecimal(FixedPoint.multiply(FixedPoint.of(0.0123), FixedPoint.of(0.005))));
+		assertEquals(new BigDecimal("-0.0001"), FixedPoint.toBigDecimal(FixedPoint.multiply(FixedPoint.of(-0.0123), FixedPoint.of(0.005))));
+	}
+
+	@Test
+	void fallsBackWhenTheProductOverflowsALong() {
+		long price = FixedPoint.of(new BigDecimal("987654.3210"));
+		long quantity = FixedPoint.of(new BigDecimal("123456.7891"));
+
+		BigDecimal expected = new BigDecimal("987654.3210").multiply(new BigDecimal("123456.7891"))
+				.setScale(4, RoundingMode.HALF_UP);
+		assertEquals(expected, FixedPoint.toBigDecimal(FixedPoint.multiply(price, quantity)));
+	}
+}
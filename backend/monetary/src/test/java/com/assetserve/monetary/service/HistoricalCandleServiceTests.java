@@ -0,0 +1,114 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleInterval;
+import com.assetserve.monetary.dto.CandleKey;
+import com.assetserve.monetary.dto.CandleSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class HistoricalCandleServiceTests {
+
+	private static final long MINUTE = 60_000;
+	private static final ZonedDateTime DAY = ZonedDateTime.of(2024, 1, 5, 0, 0, 0, 0, ZoneId.of("Asia/Kolkata"));
+	private static final long MIDNIGHT = DAY.toInstant().toEpochMilli();
+	private static final long SESSION_OPEN = MIDNIGHT + (9 * 60 + 15) * MINUTE;
+
+	private final MarketDataService marketDataService = mock(MarketDataService.class);
+	private final InMemoryCandleStore store = new InMemoryCandleStore(1_000_000);
+	private final HistoricalCandleService service = new HistoricalCandleService(marketDataService, store);
+
+	// Session candles of one interval from 09:15 up to (excluding) end, covering midnight .. coveredTo
+	private void cache(CandleInterval interval, long end, long coveredTo, long volume) {
+		ArrayCandleSeries candles = new ArrayCandleSeries();
+		for (long t = SESSION_OPEN; t < end; t += interval.getMillis()) {
+			candles.add(t, 100, 101, 99, 100.5, volume);
+		}
+		store.write(new CandleKey("NSE", "2885", interval), candles, MIDNIGHT, coveredTo);
+	}
+
+	@Test
+	void derivesFromTheCoarsestCachedSeriesWithoutAnUpstreamCall() {
+		long sessionClose = SESSION_OPEN + 375 * MINUTE;
+		cache(CandleInterval.ONE_MINUTE, sessionClose, MIDNIGHT + 24 * 60 * MINUTE - 1, 1);
+		cache(CandleInterval.FIVE_MINUTE, sessionClose, MIDNIGHT + 24 * 60 * MINUTE - 1, 5);
+
+		CandleSeries quarterHours = service.getCandles("NSE", "2885", "FIFTEEN_MINUTE", "2024-01-05 09:15", "2024-01-05 15:29");
+
+		assertEquals(25, quarterHours.size());
+		assertEquals(SESSION_OPEN, quarterHours.getTimestamp(0));
+		// Three FIVE_MINUTE candles per bucket, not fifteen ONE_MINUTE ones
+		assertEquals(15, quarterHours.getVolume(0));
+		verifyNoInteractions(marketDataService);
+	}
+
+	@Test
+	void onlyWholeBucketsInsideTheCachedRangeAreDerived() {
+		long noon = MIDNIGHT + 12 * 60 * MINUTE;
+		cache(CandleInterval.ONE_MINUTE, noon, noon - 1, 1);
+
+		ArrayCandleSeries afternoon = new ArrayCandleSeries();
+		for (long t = noon; t < SESSION_OPEN + 375 * MINUTE; t += 15 * MINUTE) {
+			afternoon.add(t, 200, 201, 199, 200.5, 1);
+		}
+		when(marketDataService.fetchCandleData(anyString(), anyString(), anyString(), anyString(), anyString()))
+				.thenReturn(afternoon);
+
+		CandleSeries quarterHours = service.getCandles("NSE", "2885", "FIFTEEN_MINUTE", "2024-01-05 09:15", "2024-01-05 15:29");
+
+		assertEquals(25, quarterHours.size());
+		assertEquals(100, quarterHours.getOpen(10));
+		assertEquals(200, quarterHours.getOpen(11));
+		verify(marketDataService).fetchCandleData("NSE", "2885", "FIFTEEN_MINUTE", "2024-01-05 12:00", "2024-01-05 15:29");
+		verifyNoMoreInteractions(marketDataService);
+	}
+
+	@Test
+	void dailyCandlesAreNeverDerivedFromIntradayData() {
+		cache(CandleInterval.ONE_MINUTE, SESSION_OPEN + 375 * MINUTE, MIDNIGHT + 24 * 60 * MINUTE - 1, 1);
+		when(marketDataService.fetchCandleData(anyString(), anyString(), anyString(), anyString(), anyString()))
+				.thenReturn(new ArrayCandleSeries(1));
+
+		service.getCandles("NSE", "2885", "ONE_DAY", "2024-01-05 00:00", "2024-01-05 23:59");
+
+		verify(marketDataService).fetchCandleData("NSE", "2885", "ONE_DAY", "2024-01-05 00:00", "2024-01-05 23:59");
+	}
+
+	@Test
+	void recentCandlesAreLeftUncoveredUntilTheySettle() {
+		long now = SESSION_OPEN + 60 * MINUTE + 30_000; // Friday 10:15:30
+		assertEquals(SESSION_OPEN + 58 * MINUTE, HistoricalCandleService.settledUntil(CandleInterval.ONE_MINUTE, now));
+		assertEquals(SESSION_OPEN + 30 * MINUTE, HistoricalCandleService.settledUntil(CandleInterval.FIFTEEN_MINUTE, now));
+
+		// On Monday only Thursday and earlier are settled: Friday's daily candle may still be revised
+		long monday = MIDNIGHT + 3 * 24 * 60 * MINUTE + 10 * 60 * MINUTE;
+		assertEquals(MIDNIGHT - MINUTE, HistoricalCandleService.settledUntil(CandleInterval.ONE_DAY, monday));
+	}
+
+	@Test
+	void memoryStoreEvictsTheLeastRecentlyUsedSeries() {
+		InMemoryCandleStore bounded = new InMemoryCandleStore(500);
+		CandleKey first = new CandleKey("NSE", "1", CandleInterval.ONE_MINUTE);
+		CandleKey second = new CandleKey("NSE", "2", CandleInterval.ONE_MINUTE);
+		CandleKey third = new CandleKey("NSE", "3", CandleInterval.ONE_MINUTE);
+		ArrayCandleSeries candles = new ArrayCandleSeries();
+		for (int m = 0; m < 200; m++) {
+			candles.add(SESSION_OPEN + m * MINUTE, 1, 1, 1, 1, 1);
+		}
+
+		bounded.write(first, candles, MIDNIGHT, SESSION_OPEN + 200 * MINUTE);
+		bounded.write(second, candles, MIDNIGHT, SESSION_OPEN + 200 * MINUTE);
+		bounded.read(first, MIDNIGHT, SESSION_OPEN);
+		bounded.write(third, candles, MIDNIGHT, SESSION_OPEN + 200 * MINUTE);
+
+		assertEquals(400, bounded.size());
+		assertEquals(200, bounded.read(first, MIDNIGHT, SESSION_OPEN + 200 * MINUTE).size());
+		assertEquals(1, bounded.findGaps(second, MIDNIGHT, SESSION_OPEN).size());
+	}
+}
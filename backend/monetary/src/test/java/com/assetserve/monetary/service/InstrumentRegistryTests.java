@@ -0,0 +1,77 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.Instrument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentRegistryTests {
+
+	private static final String MASTER = """
+			[{"token":"2885","symbol":"RELIANCE-EQ","name":"RELIANCE","expiry":"","strike":"-1.000000",
+			  "lotsize":"1","instrumenttype":"","exch_seg":"NSE","tick_size":"5.000000"},
+			 {"token":"43210","symbol":"NIFTY26DEC2424000CE","name":"NIFTY","expiry":"26dec2024","strike":"2400000.000000",
+			  "lotsize":"25","instrumenttype":"OPTIDX","exch_seg":"NFO","tick_size":"5.000000","extra":{"ignored":[1]}},
+			 {"token":"99","symbol":"GOLD","name":"GOLD","expiry":"not a date","strike":"","lotsize":"x",
+			  "instrumenttype":"FUTCOM","exch_seg":"NSE","tick_size":"100.000000"},
+			 {"token":"1","symbol":"CDS-ONLY","name":"CDS","exch_seg":"CDS"},
+			 {"symbol":"NO-TOKEN","exch_seg":"NSE"}]
+			""";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void parsesRupeesAndExpiriesAndKeepsConfiguredExchanges() throws Exception {
+		List<Instrument> instruments = registry(directory.resolve("master.json")).parse(
+				new ByteArrayInputStream(MASTER.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(List.of("2885", "43210", "99"), instruments.stream().map(Instrument::getToken).toList());
+
+		Instrument cash = instruments.get(0);
+		assertEquals(-1, cash.getStrike());
+		assertEquals(0.05, cash.getTickSize(), 1e-9);
+		assertNull(cash.getExpiry());
+
+		// Paise to rupees, case-insensitive month
+		Instrument option = instruments.get(1);
+		assertEquals(24_000, option.getStrike(), 1e-9);
+		assertEquals(LocalDate.of(2024, 12, 26), option.getExpiry());
+		assertEquals(25, option.getLotSize());
+		assertEquals("NFO", option.getExchange());
+
+		// Unparsable values fall back instead of dropping the row
+		Instrument odd = instruments.get(2);
+		assertNull(odd.getExpiry());
+		assertEquals(0, odd.getStrike());
+		assertEquals(0, odd.getLotSize());
+		assertEquals(1.0, odd.getTickSize(), 1e-9);
+	}
+
+	@Test
+	void reloadServesSearchFromTheLocalCopy() throws Exception {
+		Path master = directory.resolve("master.json");
+		Files.writeString(master, MASTER);
+		InstrumentRegistry registry = registry(master);
+		registry.reload();
+
+		assertEquals(3, registry.size());
+		assertEquals("RELIANCE-EQ", registry.get("NSE", "2885").getSymbol());
+		assertEquals("RELIANCE-EQ", registry.search("reliance", null, 5).get(0).getSymbol());
+		assertTrue(registry.search("reliance", "NFO", 5).isEmpty());
+	}
+
+	private static InstrumentRegistry registry(Path master) {
+		return new InstrumentRegistry(new ObjectMapper(), master.toString(), "", 43_200_000, Set.of("NSE", "NFO"));
+	}
+}
@@ -0,0 +1,46 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.JwtPrincipal;
+import com.assetserve.monetary.model.User;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTests {
+
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+	private final AtomicInteger lookups = new AtomicInteger();
+	private final JwtService jwtService = new JwtService(SECRET, 100, email -> {
+		lookups.incrementAndGet();
+		throw new IllegalStateException("unexpected user lookup for " + email);
+	});
+
+	private final User user = User.builder().id(42L).email("asha@example.com").firstName("Asha").password("x").build();
+
+	@Test
+	void buildsPrincipalFromClaimsWithoutUserLookup() {
+		String token = jwtService.generateToken(user);
+
+		JwtPrincipal principal = jwtService.verify(token);
+
+		assertEquals(42L, principal.getUserId());
+		assertEquals("asha@example.com", principal.getName());
+		assertEquals("ROLE_USER", principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+		assertSame(principal, jwtService.verify(token));
+		assertEquals(0, lookups.get());
+	}
+
+	@Test
+	void rejectsTamperedTokens() {
+		String token = jwtService.generateToken(user);
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+		assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+	}
+}
@@ -0,0 +1,78 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.ArrayCandleSeries;
+import com.assetserve.monetary.dto.CandleInterval;
+import com.assetserve.monetary.dto.CandleKey;
+import com.assetserve.monetary.dto.CandleSeries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCandleArchiveTests {
+
+	private static final CandleKey KEY = new CandleKey("NSE", "2885", CandleInterval.ONE_MINUTE);
+	private static final long MINUTE = 60_000;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void appendsBackfillsAndReopensWithCoverage() throws Exception {
+		MappedCandleArchive archive = new MappedCandleArchive(directory.toString());
+		archive.write(KEY, candles(10, 20), 10 * MINUTE, 20 * MINUTE - 1);
+		archive.write(KEY, candles(20, 25), 20 * MINUTE, 25 * MINUTE - 1);
+		// Backfill before the stored range forces a rewrite
+		archive.write(KEY, candles(0, 5), 0, 10 * MINUTE - 1);
+
+		MappedCandleArchive reopened = new MappedCandleArchive(directory.toString());
+		CandleSeries all = reopened.read(KEY, 0, Long.MAX_VALUE);
+		assertEquals(20, all.size());
+		assertEquals(0, all.getTimestamp(0));
+		assertEquals(24 * MINUTE, all.getTimestamp(19));
+		assertEquals(124.0, all.getClose(19));
+		assertEquals(24, all.getVolume(19));
+
+		CandleSeries range = reopened.read(KEY, 12 * MINUTE, 14 * MINUTE);
+		assertEquals(3, range.size());
+		assertEquals(12 * MINUTE, range.getTimestamp(0));
+
+		assertTrue(reopened.findGaps(KEY, 0, 24 * MINUTE).isEmpty());
+		List<long[]> gaps = reopened.findGaps(KEY, 0, 30 * MINUTE);
+		assertEquals(1, gaps.size());
+		assertEquals(25 * MINUTE, gaps.get(0)[0]);
+	}
+
+	@Test
+	void rewriteLeavesOneGenerationAndSkipsHalfWrittenOnes() throws Exception {
+		MappedCandleArchive archive = new MappedCandleArchive(directory.toString());
+		archive.write(KEY, candles(10, 20), 10 * MINUTE, 20 * MINUTE - 1);
+		archive.write(KEY, candles(0, 5), 0, 10 * MINUTE - 1);
+
+		Path intervalDirectory = directory.resolve("NSE").resolve("ONE_MINUTE");
+		try (Stream<Path> files = Files.list(intervalDirectory)) {
+			assertEquals(1, files.count());
+		}
+
+		// A crash before the header of a newer generation was written leaves it without magic
+		Path halfWritten = intervalDirectory.resolve("2885.9.candles");
+		Files.write(halfWritten, new byte[4096]);
+
+		MappedCandleArchive reopened = new MappedCandleArchive(directory.toString());
+		assertEquals(15, reopened.read(KEY, 0, Long.MAX_VALUE).size());
+		assertFalse(Files.exists(halfWritten));
+	}
+
+	private static ArrayCandleSeries candles(int fromMinute, int toMinute) {
+		ArrayCandleSeries series = new ArrayCandleSeries();
+		for (int m = fromMinute; m < toMinute; m++) {
+			series.add(m * MINUTE, 100 + m, 101 + m, 99 + m, 100 + m, m);
+		}
+		return series;
+	}
+}
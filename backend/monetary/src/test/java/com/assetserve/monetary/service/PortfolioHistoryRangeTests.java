@@ -0,0 +1,52 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.model.PortfolioHistoryRollup;
+import com.assetserve.monetary.repository.PortfolioHistoryRepository;
+import com.assetserve.monetary.repository.PortfolioHistoryRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PortfolioHistoryRangeTests {
+
+	private final UserIdentityService identity = mock(UserIdentityService.class);
+	private final PortfolioHistoryRepository daily = mock(PortfolioHistoryRepository.class);
+	private final PortfolioHistoryRollupRepository rollups = mock(PortfolioHistoryRollupRepository.class);
+	private final PortfolioService service = new PortfolioService(identity, null, daily, rollups, null, null);
+
+	{
+		ReflectionTestUtils.setField(service, "historyMaxPoints", 400);
+		when(identity.resolveUserId("a@b.c")).thenReturn(7L);
+	}
+
+	@Test
+	void shortHistoryIsServedDailyEvenForTheAllRange() {
+		when(daily.findFirstSnapshotAfter(eq(7L), any())).thenReturn(LocalDate.now().minusWeeks(3));
+		service.getPortfolioHistory("a@b.c", "all");
+		verify(daily).findPoints(eq(7L), any());
+		verifyNoInteractions(rollups);
+
+		// A full year still fits the budget day by day
+		when(daily.findFirstSnapshotAfter(eq(7L), any())).thenReturn(LocalDate.now().minusMonths(12).plusDays(1));
+		service.getPortfolioHistory("a@b.c", "12m");
+		verify(daily, times(2)).findPoints(eq(7L), any());
+		verifyNoInteractions(rollups);
+	}
+
+	@Test
+	void longHistoryMovesToWeeklyThenMonthlyCloses() {
+		when(daily.findFirstSnapshotAfter(eq(7L), any())).thenReturn(LocalDate.now().minusYears(5));
+		service.getPortfolioHistory("a@b.c", "all");
+		verify(rollups).findPoints(eq(7L), eq(PortfolioHistoryRollup.Granularity.WEEK), any());
+
+		when(daily.findFirstSnapshotAfter(eq(7L), any())).thenReturn(LocalDate.now().minusYears(10));
+		service.getPortfolioHistory("a@b.c", "all");
+		verify(rollups).findPoints(eq(7L), eq(PortfolioHistoryRollup.Granularity.MONTH), any());
+		verify(daily, never()).findPoints(any(), any());
+	}
+}
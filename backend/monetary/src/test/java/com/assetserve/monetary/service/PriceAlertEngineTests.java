@@ -0,0 +1,103 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.MarketTick;
+import com.assetserve.monetary.dto.PriceAlert;
+import com.assetserve.monetary.dto.WatchlistTarget;
+import com.assetserve.monetary.repository.UserWatchListRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PriceAlertEngineTests {
+
+	private record Target(Long id, String userEmail, String symbolToken, String symbolName,
+						  Double projectedBuyPrice, Double currentLtp, Instant targetFiredAt) implements WatchlistTarget {
+		Target(Long id, String userEmail, String symbolToken, String symbolName, Double projectedBuyPrice, Double currentLtp) {
+			this(id, userEmail, symbolToken, symbolName, projectedBuyPrice, currentLtp, null);
+		}
+
+		public Long getId() { return id; }
+		public Long getUserId() { return id; }
+		public String getUserEmail() { return userEmail; }
+		public String getSymbolToken() { return symbolToken; }
+		public String getSymbolName() { return symbolName; }
+		public Double getProjectedBuyPrice() { return projectedBuyPrice; }
+		public Double getCurrentLtp() { return currentLtp; }
+		public Instant getTargetFiredAt() { return targetFiredAt; }
+	}
+
+	private final LivePriceBook livePriceBook = new LivePriceBook(5000, 1000);
+	private final BlockingQueue<PriceAlert> delivered = new LinkedBlockingQueue<>();
+
+	private final UserWatchListRepository repository = mock(UserWatchListRepository.class);
+
+	private PriceAlertEngine engine(Target... targets) {
+		when(repository.findAllTargets()).thenReturn(List.of(targets));
+		PriceAlertEngine engine = new PriceAlertEngine(repository, livePriceBook, List.of(delivered::add));
+		engine.bootstrap();
+		return engine;
+	}
+
+	private void tick(String token, double ltp) {
+		livePriceBook.publish(MarketTick.builder().exchange("NSE").token(token).ltp(ltp)
+				.receivedAt(System.currentTimeMillis()).build());
+	}
+
+	@Test
+	void firesOnceWhenPriceCrossesTarget() throws InterruptedException {
+		engine(new Target(1L, "a@x.com", "2885", "RELIANCE", 2400.0, 2500.0),
+				new Target(2L, "b@x.com", "2885", "RELIANCE", 2600.0, 2500.0),
+				new Target(3L, "c@x.com", "2885", "RELIANCE", 2300.0, 2500.0));
+
+		tick("2885", 2450);
+		assertNull(delivered.poll(100, TimeUnit.MILLISECONDS));
+
+		tick("2885", 2399.5);
+		PriceAlert below = delivered.poll(1, TimeUnit.SECONDS);
+		assertEquals(1L, below.getWatchlistId());
+		assertEquals(PriceAlert.Direction.BELOW, below.getDirection());
+		assertEquals(2399.5, below.getTriggerPrice());
+
+		tick("2885", 2390);
+		tick("2885", 2600);
+		PriceAlert above = delivered.poll(1, TimeUnit.SECONDS);
+		assertEquals(2L, above.getWatchlistId());
+		assertEquals(PriceAlert.Direction.ABOVE, above.getDirection());
+		assertNull(delivered.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void gapThroughSeveralTargetsFiresAllOfThem() throws InterruptedException {
+		engine(new Target(1L, "a@x.com", "11536", "TCS", 3900.0, 4000.0),
+				new Target(2L, "b@x.com", "11536", "TCS", 3800.0, 4000.0),
+				new Target(3L, "c@x.com", "11536", "TCS", 3700.0, 4000.0));
+
+		tick("11536", 3750);
+
+		assertNotNull(delivered.poll(1, TimeUnit.SECONDS));
+		assertNotNull(delivered.poll(1, TimeUnit.SECONDS));
+		assertNull(delivered.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void firedTargetsAreStampedAndStayDisarmedAcrossRestarts() throws InterruptedException {
+		engine(new Target(1L, "a@x.com", "1594", "INFY", 1500.0, 1600.0));
+		tick("1594", 1490);
+		assertNotNull(delivered.poll(1, TimeUnit.SECONDS));
+		verify(repository, timeout(1000)).markTargetFired(eq(1L), eq(1500.0), any());
+
+		// A fresh engine, as after a restart, reads the stamp and does not arm the target again
+		engine(new Target(1L, "a@x.com", "1594", "INFY", 1500.0, 1600.0, Instant.now()));
+		tick("1594", 1480);
+		assertNull(delivered.poll(200, TimeUnit.MILLISECONDS));
+	}
+}
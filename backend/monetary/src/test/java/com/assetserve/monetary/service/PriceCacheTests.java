@@ -0,0 +1,108 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.exception.UpstreamThrottledException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceCacheTests {
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		PriceCache<Double> cache = new PriceCache<>(60_000, 100);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		Function<Set<String>, Map<String, Double>> loader = keys -> {
+			loads.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Map.of("NSE:1", 101.5);
+		};
+
+		int callers = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<Map<String, Double>>> results = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				results.add(executor.submit(() -> cache.getAll(List.of("NSE:1"), loader)));
+			}
+			// Release the load only once every other caller has joined it
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (cache.stats().get("coalesced") < callers - 1 && System.nanoTime() < deadline) {
+				Thread.sleep(1);
+			}
+			release.countDown();
+
+			for (Future<Map<String, Double>> result : results) {
+				assertEquals(Map.of("NSE:1", 101.5), result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+		assertEquals(callers - 1, cache.stats().get("coalesced"));
+	}
+
+	@Test
+	void reloadsAfterTtlAndEvictsOldestBeyondTheBound() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		Function<Set<String>, Map<String, Double>> loader = keys -> {
+			loads.incrementAndGet();
+			Map<String, Double> values = new HashMap<>();
+			keys.forEach(key -> values.put(key, 100.0 + loads.get()));
+			return values;
+		};
+
+		PriceCache<Double> shortLived = new PriceCache<>(500, 100);
+		shortLived.getAll(List.of("NSE:1"), loader);
+		assertEquals(Map.of("NSE:1", 101.0), shortLived.getAll(List.of("NSE:1"), loader));
+		assertEquals(1, loads.get());
+		Thread.sleep(550);
+		assertEquals(Map.of("NSE:1", 102.0), shortLived.getAll(List.of("NSE:1"), loader));
+
+		loads.set(0);
+		PriceCache<Double> bounded = new PriceCache<>(60_000, 2);
+		for (String key : List.of("NSE:1", "NSE:2", "NSE:3")) {
+			bounded.getAll(List.of(key), loader);
+			Thread.sleep(1);
+		}
+		assertEquals(2, bounded.stats().get("size"));
+		assertEquals(1, bounded.stats().get("evictions"));
+
+		// The oldest entry went; the newer two are still served from the cache
+		bounded.getAll(List.of("NSE:2", "NSE:3"), loader);
+		assertEquals(3, loads.get());
+		bounded.getAll(List.of("NSE:1"), loader);
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void throttledLoadServesStaleValuesAndNeverZeroes() throws Exception {
+		PriceCache<Double> cache = new PriceCache<>(1, 100);
+		cache.getAll(List.of("NSE:1"), keys -> Map.of("NSE:1", 101.5));
+		Thread.sleep(5);
+
+		UpstreamThrottledException throttled = new UpstreamThrottledException(AngelOneEndpoint.QUOTE, 3_000);
+		assertEquals(Map.of("NSE:1", 101.5), cache.getAll(List.of("NSE:1"), keys -> { throw throttled; }));
+
+		// A key with nothing to fall back on surfaces the throttle instead of a missing price
+		assertSame(throttled, assertThrows(UpstreamThrottledException.class,
+				() -> cache.getAll(List.of("NSE:1", "NSE:2"), keys -> { throw throttled; })));
+	}
+}
@@ -0,0 +1,60 @@
+package com.assetserve.monetary.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestBatcherTests {
+
+	private record Batch(UpstreamRateGovernor.Lane lane, Set<String> keys) {
+	}
+
+	// 5 quote calls per second, burst of 5
+	private final UpstreamRateGovernor governor = new UpstreamRateGovernor(
+			new MockEnvironment().withProperty("angelone.rate.quote.per-second", "5"));
+	private final List<Batch> batches = Collections.synchronizedList(new ArrayList<>());
+
+	private final RequestBatcher<String, Double> batcher = new RequestBatcher<>(1, keys -> {
+		try {
+			governor.acquire(AngelOneEndpoint.QUOTE);
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+		batches.add(new Batch(UpstreamRateGovernor.currentLane(), Set.copyOf(keys)));
+		return keys.stream().collect(Collectors.toMap(key -> key, key -> 1.0));
+	});
+
+	@Test
+	void interactiveKeysOvertakeABackgroundBacklog() throws Exception {
+		List<String> snapshotKeys = IntStream.range(0, 15).mapToObj(i -> "NSE:bg" + i).toList();
+		CompletableFuture<Map<String, Double>> snapshot = CompletableFuture.supplyAsync(
+				() -> governor.inBackground(() -> batcher.load(snapshotKeys)));
+
+		// Let the background lane spend its burst and start queueing on the rate budget
+		while (batches.size() < 6) {
+			Thread.sleep(5);
+		}
+
+		long started = System.currentTimeMillis();
+		Map<String, Double> interactive = batcher.load(List.of("NSE:user"));
+		long waited = System.currentTimeMillis() - started;
+
+		assertEquals(Map.of("NSE:user", 1.0), interactive);
+		assertTrue(waited < 1_000, "interactive caller waited " + waited + " ms");
+
+		assertEquals(15, snapshot.get(10, TimeUnit.SECONDS).size());
+		// Issued by the interactive caller itself, on its own, not by the background drainer
+		int position = batches.indexOf(new Batch(UpstreamRateGovernor.Lane.INTERACTIVE, Set.of("NSE:user")));
+		assertTrue(position >= 0, "interactive key rode in a background batch: " + batches);
+		assertTrue(batches.stream().filter(b -> b.lane() == UpstreamRateGovernor.Lane.BACKGROUND)
+				.allMatch(b -> b.keys().stream().allMatch(key -> key.startsWith("NSE:bg"))));
+		assertTrue(batches.size() - 1 - position >= 3, "interactive batch was not served ahead of the backlog: " + batches);
+	}
+}
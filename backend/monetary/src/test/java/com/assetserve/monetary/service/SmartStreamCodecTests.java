@@ -0,0 +1,51 @@
+package com.assetserve.monetary.service;
+
+import com.assetserve.monetary.dto.MarketTick;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmartStreamCodecTests {
+
+	@Test
+	void quotePacketRoundTripsIntoPriceBook() {
+		MarketTick sent = MarketTick.builder()
+				.exchange("NSE")
+				.token("2885")
+				.mode(SmartStreamCodec.MODE_QUOTE)
+				.sequenceNumber(42)
+				.exchangeTimestamp(1_700_000_000_000L)
+				.ltp(2456.35)
+				.volume(1_234_567)
+				.open(2440.00)
+				.high(2461.10)
+				.low(2435.55)
+				.close(2450.20)
+				.build();
+
+		ByteBuffer packet = SmartStreamCodec.encode(sent);
+		assertEquals(SmartStreamCodec.QUOTE_PACKET_SIZE, packet.remaining());
+
+		MarketTick received = SmartStreamCodec.decode(packet);
+		assertNotNull(received);
+		received.setReceivedAt(System.currentTimeMillis());
+		assertEquals("NSE", received.getExchange());
+		assertEquals("2885", received.getToken());
+		assertEquals(42, received.getSequenceNumber());
+		assertEquals(2456.35, received.getLtp(), 1e-9);
+		assertEquals(2450.20, received.getClose(), 1e-9);
+		assertEquals(1_234_567, received.getVolume());
+
+		LivePriceBook book = new LivePriceBook(5_000, 10);
+		book.publish(received);
+		assertEquals(2456.35, book.getTick("NSE", "2885").getLtp(), 1e-9);
+		assertNull(book.getTick("NSE", "1594"));
+	}
+
+	@Test
+	void shortPacketsAreIgnored() {
+		assertNull(SmartStreamCodec.decode(ByteBuffer.allocate(10)));
+	}
+}
@@ -0,0 +1,28 @@
+package com.assetserve.monetary.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolSearchIndexTests {
+
+	private final SymbolSearchIndex<String> index = SymbolSearchIndex.build(
+			List.of("RELINFRA", "RELIANCE", "TATAMOTORS", "TATASTEEL", "BAJAJ-AUTO", "ADANIPOWER", "TATAPOWER", "POWERGRID"),
+			name -> List.of(name));
+
+	@Test
+	void ranksExactThenPrefixThenSubstring() {
+		assertEquals(List.of("POWERGRID", "TATAPOWER", "ADANIPOWER"), index.search("power", 10));
+		assertEquals("RELIANCE", index.search("RELIANCE", 10).get(0));
+		assertEquals(List.of("TATASTEEL", "TATAPOWER"), index.search("TATA", 2));
+	}
+
+	@Test
+	void toleratesTyposAndSeparators() {
+		assertEquals("RELIANCE", index.search("RELAINCE", 10).get(0));
+		assertEquals("TATASTEEL", index.search("tata stel", 10).get(0));
+		assertEquals("BAJAJ-AUTO", index.search("bajaj auto", 10).get(0));
+	}
+}